@@ -1,8 +1,13 @@
 package iscteiul.ista;
 
+import iscteiul.ista.battleship.BatchRunner;
 import iscteiul.ista.battleship.Fleet;
 import iscteiul.ista.battleship.Tasks;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 /**
  * @author britoeabreu
  * @author adrianolopes
@@ -10,8 +15,20 @@ import iscteiul.ista.battleship.Tasks;
  */
 public class App
 {
-    public static void main( String[] args )
+    /**
+     * With no arguments plays a task on the console. Given a directory of
+     * scripts, and optionally a directory for their outputs, plays every
+     * script headless instead.
+     */
+    public static void main( String[] args ) throws IOException
     {
+        if (args.length > 0) {
+            Path scripts = Paths.get(args[0]);
+            Path outputs = args.length > 1 ? Paths.get(args[1]) : scripts;
+            int played = new BatchRunner().run(scripts, outputs);
+            System.out.printf("%d scripts jogados ate ao fim\n", played);
+            return;
+        }
 
         System.out.printf("\n***  Battleship Game ***\n");
 
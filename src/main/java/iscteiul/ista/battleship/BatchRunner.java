@@ -0,0 +1,120 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Plays a directory of command scripts without a console. Every script is a
+ * game in the protocol of Tasks.taskD (nova, estado, mapa, rajada, ver,
+ * desisto), and is played on its own task of a pool. The messages and boards
+ * of a script go to its own buffered output file, named after the script,
+ * rather than through the log, so the scripts do not contend for the console.
+ */
+public class BatchRunner {
+    /**
+     * Appended to the name of a script to name its output
+     */
+    public static final String OUTPUT_SUFFIX = ".out";
+
+    private static final int OUTPUT_BUFFER = 1 << 16;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * A runner on the common pool
+     */
+    public BatchRunner() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool the pool that plays the scripts
+     */
+    public BatchRunner(ForkJoinPool pool) {
+        assert pool != null;
+
+        this.pool = pool;
+    }
+
+    /**
+     * Plays every script of a directory. Files already named as outputs are
+     * not scripts, so the outputs may go to the same directory.
+     *
+     * @param scripts the directory of the scripts
+     * @param outputs the directory of the outputs
+     * @return the number of scripts played to the end
+     * @throws IOException if a directory cannot be read or created
+     */
+    public int run(Path scripts, Path outputs) throws IOException {
+        assert scripts != null && outputs != null;
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(scripts)) {
+            files = listing.filter(Files::isRegularFile)
+                    .filter(f -> !f.getFileName().toString().endsWith(OUTPUT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        Files.createDirectories(outputs);
+
+        List<Script> tasks = new ArrayList<>();
+        for (Path file : files)
+            tasks.add(new Script(file, outputs.resolve(file.getFileName() + OUTPUT_SUFFIX)));
+        if (ForkJoinTask.getPool() == pool)
+            ForkJoinTask.invokeAll(tasks);
+        else
+            pool.submit(() -> ForkJoinTask.invokeAll(tasks)).join();
+
+        int played = 0;
+        for (Script task : tasks)
+            if (task.join())
+                played++;
+        return played;
+    }
+
+    /**
+     * One script and its output
+     */
+    private static class Script extends RecursiveTask<Boolean> {
+        private final Path script;
+        private final Path output;
+
+        Script(Path script, Path output) {
+            this.script = script;
+            this.output = output;
+        }
+
+        @Override
+        protected Boolean compute() {
+            try (InputStream in = Files.newInputStream(script);
+                 PrintStream out = new PrintStream(new BufferedOutputStream(Files.newOutputStream(output), OUTPUT_BUFFER),
+                         false, StandardCharsets.UTF_8)) {
+                try {
+                    Tasks.taskD(new Tokenizer(in), out);
+                } catch (RuntimeException e) {
+                    out.println("ERROR! script stopped: " + e);
+                    return false;
+                }
+                return !out.checkError();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size set of board cells packed into 64-bit words. Cells are the
+ * row-major indexes of the board (row * width + column).
+ */
+public class Bitboard {
+    private final long[] words;
+    private final int size;
+
+    /**
+     * @param size the number of cells covered by this bitboard
+     */
+    public Bitboard(int size) {
+        assert size >= 0;
+
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * @return the number of cells covered by this bitboard
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param cell the cell of interest
+     * @return true if the cell belongs to the set
+     */
+    public boolean get(int cell) {
+        return (words[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Adds a cell to the set
+     *
+     * @param cell the cell to add
+     */
+    public void set(int cell) {
+        words[cell >>> 6] |= 1L << cell;
+    }
+
+    /**
+     * Removes a cell from the set
+     *
+     * @param cell the cell to remove
+     */
+    public void clear(int cell) {
+        words[cell >>> 6] &= ~(1L << cell);
+    }
+
+    /**
+     * Removes every cell from the set
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    /**
+     * @return the number of cells in the set
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+}
@@ -0,0 +1,125 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * The rules of a game that depend on the size of the board: its dimensions and
+ * the size of the fleet. Board cells are identified by their row-major index,
+ * row * columns + column, which is what the bitboards and the int-cell
+ * operations of {@link IFleet} and {@link IGame} use.
+ */
+public final class BoardGeometry {
+    /**
+     * The classic 10x10 board with the standard fleet
+     */
+    public static final BoardGeometry STANDARD = new BoardGeometry(IFleet.BOARD_SIZE, IFleet.BOARD_SIZE,
+            IFleet.FLEET_SIZE);
+
+    private final int rows;
+    private final int columns;
+    private final int fleetSize;
+
+    /**
+     * @param rows      number of rows of the board
+     * @param columns   number of columns of the board
+     * @param fleetSize the fleet size, with the same meaning as IFleet.FLEET_SIZE
+     */
+    public BoardGeometry(int rows, int columns, int fleetSize) throws IllegalArgumentException {
+        if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("ERROR! invalid board dimensions " + rows + "x" + columns);
+        if (fleetSize < 0)
+            throw new IllegalArgumentException("ERROR! invalid fleet size " + fleetSize);
+
+        this.rows = rows;
+        this.columns = columns;
+        this.fleetSize = fleetSize;
+    }
+
+    /**
+     * @param rows      number of rows of the board
+     * @param columns   number of columns of the board
+     * @param fleetSize the fleet size
+     * @return STANDARD if it has these dimensions, or else a new geometry
+     */
+    public static BoardGeometry of(int rows, int columns, int fleetSize) throws IllegalArgumentException {
+        if (rows == STANDARD.rows && columns == STANDARD.columns && fleetSize == STANDARD.fleetSize)
+            return STANDARD;
+        return new BoardGeometry(rows, columns, fleetSize);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getFleetSize() {
+        return fleetSize;
+    }
+
+    /**
+     * @return the number of cells of the board
+     */
+    public int getCellCount() {
+        return rows * columns;
+    }
+
+    /**
+     * @param row    a row of the board
+     * @param column a column of the board
+     * @return true if the coordinates lie on the board
+     */
+    public boolean contains(int row, int column) {
+        return row >= 0 && row < rows && column >= 0 && column < columns;
+    }
+
+    /**
+     * @param cell a cell index
+     * @return true if the index denotes a cell of the board
+     */
+    public boolean contains(int cell) {
+        return cell >= 0 && cell < rows * columns;
+    }
+
+    /**
+     * @param row    a row of the board
+     * @param column a column of the board
+     * @return the index of the cell, which is only meaningful on the board
+     */
+    public int cell(int row, int column) {
+        return row * columns + column;
+    }
+
+    /**
+     * @param cell a cell index
+     * @return the row of the cell
+     */
+    public int row(int cell) {
+        return cell / columns;
+    }
+
+    /**
+     * @param cell a cell index
+     * @return the column of the cell
+     */
+    public int column(int cell) {
+        return cell % columns;
+    }
+
+    /**
+     * @param cell a cell index
+     * @return the position of the cell
+     */
+    public IPosition position(int cell) {
+        return Cell.of(row(cell), column(cell));
+    }
+
+    @Override
+    public String toString() {
+        return rows + "x" + columns + " (" + fleetSize + ")";
+    }
+
+}
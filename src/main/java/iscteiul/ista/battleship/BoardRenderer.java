@@ -0,0 +1,145 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Draws boards as text, one line per row, into a StringBuilder reused from one
+ * board to the next. A drawn board is handed over in a single call, whether to
+ * an Appendable or, as ASCII bytes from a reusable array, to an OutputStream,
+ * so printing a board takes one write rather than one per cell.
+ * <p>
+ * A renderer is not thread-safe; each session keeps its own.
+ */
+public class BoardRenderer {
+    public static final char WATER = '.';
+    public static final char SHIP = '#';
+    public static final char SHOT = 'X';
+    public static final char HIT = '*';
+    public static final char MISS = 'o';
+
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final StringBuilder board;
+    private byte[] bytes;
+
+    public BoardRenderer() {
+        board = new StringBuilder();
+        bytes = new byte[0];
+    }
+
+    /**
+     * Starts a board of water
+     */
+    private void clear(BoardGeometry geometry) {
+        board.setLength(0);
+        for (int row = 0; row < geometry.getRows(); row++) {
+            for (int col = 0; col < geometry.getColumns(); col++)
+                board.append(WATER);
+            board.append(NEWLINE);
+        }
+    }
+
+    private void mark(BoardGeometry geometry, int row, int column, char symbol) throws IllegalArgumentException {
+        if (!geometry.contains(row, column))
+            throw new IllegalArgumentException("ERROR! position " + row + " " + column + " is off the "
+                    + geometry.getRows() + "x" + geometry.getColumns() + " board");
+        board.setCharAt(row * (geometry.getColumns() + NEWLINE.length()) + column, symbol);
+    }
+
+    /**
+     * Draws a board with some positions marked
+     *
+     * @param geometry  the board
+     * @param positions the positions to mark, all on the board
+     * @param marker    the mark
+     * @return the board, valid until the next drawing
+     * @throws IllegalArgumentException if a position is off the board
+     */
+    public CharSequence render(BoardGeometry geometry, List<IPosition> positions, char marker)
+            throws IllegalArgumentException {
+        assert geometry != null && positions != null;
+
+        clear(geometry);
+        for (IPosition pos : positions)
+            mark(geometry, pos.getRow(), pos.getColumn(), marker);
+        return board;
+    }
+
+    /**
+     * Draws the ships of a fleet as SHIP on WATER
+     *
+     * @param fleet the fleet
+     * @return the board, valid until the next drawing
+     */
+    public CharSequence renderFleet(IFleet fleet) {
+        assert fleet != null;
+
+        BoardGeometry geometry = fleet.getGeometry();
+        clear(geometry);
+        for (IShip s : fleet.getShips())
+            for (IPosition pos : s.getPositions())
+                mark(geometry, pos.getRow(), pos.getColumn(), SHIP);
+        return board;
+    }
+
+    /**
+     * Draws the valid shots of a game as SHOT on WATER
+     *
+     * @param game the game
+     * @return the board, valid until the next drawing
+     */
+    public CharSequence renderShots(IGame game) {
+        assert game != null;
+
+        return render(game.getGeometry(), game.getShots(), SHOT);
+    }
+
+    /**
+     * Draws a game as its owner sees it: the ships, with the cells that were
+     * hit as HIT, and the shots that fell in the water as MISS
+     *
+     * @param game  the game
+     * @param fleet the fleet under fire in the game
+     * @return the board, valid until the next drawing
+     */
+    public CharSequence renderCombined(IGame game, IFleet fleet) {
+        assert game != null && fleet != null;
+
+        renderFleet(fleet);
+        BoardGeometry geometry = game.getGeometry();
+        for (IPosition pos : game.getShots())
+            mark(geometry, pos.getRow(), pos.getColumn(), fleet.shipAt(pos) != null ? HIT : MISS);
+        return board;
+    }
+
+    /**
+     * Appends the last board drawn
+     *
+     * @param out where to append it
+     * @throws IOException if the Appendable fails
+     */
+    public void writeTo(Appendable out) throws IOException {
+        out.append(board);
+    }
+
+    /**
+     * Writes the last board drawn as ASCII, in a single write
+     *
+     * @param out where to write it
+     * @throws IOException if the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        int length = board.length();
+        if (bytes.length < length)
+            bytes = new byte[length];
+        for (int i = 0; i < length; i++)
+            bytes[i] = (byte) board.charAt(i);
+        out.write(bytes, 0, length);
+    }
+
+}
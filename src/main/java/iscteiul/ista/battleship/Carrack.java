@@ -13,20 +13,10 @@ public class Carrack extends Ship {
      */
     public Carrack(Compass bearing, IPosition pos) throws IllegalArgumentException {
         super(Carrack.NAME, bearing, pos);
-        switch (bearing) {
-            case NORTH:
-            case SOUTH:
-                for (int r = 0; r < SIZE; r++)
-                    getPositions().add(new Position(pos.getRow() + r, pos.getColumn()));
-                break;
-            case EAST:
-            case WEST:
-                for (int c = 0; c < SIZE; c++)
-                    getPositions().add(new Position(pos.getRow(), pos.getColumn() + c));
-                break;
-            default:
-                throw new IllegalArgumentException("ERROR! invalid bearing for the carrack");
-        }
+        ShipShape shape = ShipShape.of(Carrack.NAME, bearing);
+        if (shape == null)
+            throw new IllegalArgumentException("ERROR! invalid bearing for the carrack");
+        place(shape);
     }
 
     /*
@@ -0,0 +1,142 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * An immutable board coordinate. Cells in the top-left CACHED x CACHED corner,
+ * which covers the whole standard board, are shared flyweights obtained
+ * through {@link #of(int, int)}; their packed index on a given board comes
+ * from {@link BoardGeometry#cell(int, int)}.
+ * <p>
+ * A cell carries no state of its own: hits are recorded by the ship that
+ * occupies it and occupancy by the fleet.
+ */
+public final class Cell implements IPosition {
+    private static final int CACHED = 64;
+    private static final Cell[] CACHE = new Cell[CACHED * CACHED];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++)
+            CACHE[i] = new Cell(i / CACHED, i % CACHED);
+    }
+
+    /**
+     * @param row    the row of the cell
+     * @param column the column of the cell
+     * @return the shared cell for cached coordinates, or a new one otherwise
+     */
+    public static Cell of(int row, int column) {
+        if (row >= 0 && row < CACHED && column >= 0 && column < CACHED)
+            return CACHE[row * CACHED + column];
+        return new Cell(row, column);
+    }
+
+    // -----------------------------------------------------
+
+    private final int row;
+    private final int column;
+
+    private Cell(int row, int column) {
+        this.row = row;
+        this.column = column;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IPosition#getRow()
+     */
+    @Override
+    public int getRow() {
+        return row;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IPosition#getColumn()
+     */
+    @Override
+    public int getColumn() {
+        return column;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * row + column;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IPosition#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object otherPosition) {
+        if (this == otherPosition)
+            return true;
+        if (otherPosition instanceof IPosition) {
+            IPosition other = (IPosition) otherPosition;
+            return (this.row == other.getRow() && this.column == other.getColumn());
+        } else {
+            return false;
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IPosition#isAdjacentTo(battleship.IPosition)
+     */
+    @Override
+    public boolean isAdjacentTo(IPosition other) {
+        return (Math.abs(this.row - other.getRow()) <= 1 && Math.abs(this.column - other.getColumn()) <= 1);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IPosition#occupy()
+     */
+    @Override
+    public void occupy() {
+        throw new UnsupportedOperationException("ERROR! cells are immutable, occupancy is kept by the fleet");
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IPosition#shoot()
+     */
+    @Override
+    public void shoot() {
+        throw new UnsupportedOperationException("ERROR! cells are immutable, hits are kept by the ship");
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IPosition#isOccupied()
+     */
+    @Override
+    public boolean isOccupied() {
+        throw new UnsupportedOperationException("ERROR! cells are immutable, occupancy is kept by the fleet: use IFleet.shipAt");
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IPosition#isHit()
+     */
+    @Override
+    public boolean isHit() {
+        throw new UnsupportedOperationException("ERROR! cells are immutable, hits are kept by the ship: use IShip.damageMask");
+    }
+
+    @Override
+    public String toString() {
+        return ("Linha = " + row + " Coluna = " + column);
+    }
+
+}
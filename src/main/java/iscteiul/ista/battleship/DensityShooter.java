@@ -0,0 +1,318 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.SplittableRandom;
+
+/**
+ * A hunt/target shooter driven by placement density. For every category still
+ * afloat it counts, for each cell, how many legal placements of the category's
+ * shapes cover the cell; a placement is legal while it stays on the board and
+ * avoids every known miss and every cell next to a sunk ship. The counts are
+ * weighted by the number of ships of the category still floating.
+ * <p>
+ * While no unsunk hit is known the shooter fires at the densest unshot cell.
+ * Otherwise it fires at the unshot cell covered by most legal placements that
+ * also cover an unsunk hit.
+ * <p>
+ * The legal anchors of every shape are bitboards. A new miss or sunk ship
+ * only retires the placements that cover the newly blocked cells, and updates
+ * the counts of their cells, so the density map is never recomputed.
+ */
+public class DensityShooter implements IShooter {
+    private final int[] composition;
+    private final ShipShape[] shapes;
+    private final int[] shapeCategory;
+
+    private BoardGeometry geometry;
+    private SplittableRandom random;
+    private int words;
+    private int[][] offsets;
+
+    /**
+     * Anchors where each shape fits on the empty board, words apart, and the
+     * placement counts and density of the empty board
+     */
+    private long[] start;
+    private int[][] startCover;
+    private int[] startDensity;
+
+    /**
+     * Anchors still legal for each shape, laid out as start
+     */
+    private long[] legal;
+
+    /**
+     * Number of legal placements of each category covering each cell, and
+     * their sum weighted by the ships of each category still floating
+     */
+    private int[][] cover;
+    private int[] density;
+    private int[] floating;
+
+    private Bitboard shot;
+    private Bitboard blocked;
+
+    /**
+     * The hits on ships not yet sunk
+     */
+    private Bitboard unsunk;
+    private int[] hits;
+    private int hitCount;
+
+    /**
+     * Target mode scores and the cells that received one
+     */
+    private int[] score;
+    private int[] scored;
+
+    /**
+     * A shooter against the standard fleet
+     */
+    public DensityShooter() {
+        this(FleetGenerator.STANDARD_FLEET);
+    }
+
+    /**
+     * @param composition the number of ships per ShipShape.CATEGORIES entry
+     */
+    public DensityShooter(int[] composition) throws IllegalArgumentException {
+        assert composition != null;
+        if (composition.length != ShipShape.CATEGORIES.length)
+            throw new IllegalArgumentException("ERROR! fleet composition must give one count per category");
+
+        this.composition = composition.clone();
+        int count = 0;
+        for (String category : ShipShape.CATEGORIES)
+            count += ShipShape.distinct(category).length;
+        shapes = new ShipShape[count];
+        shapeCategory = new int[count];
+        count = 0;
+        for (int category = 0; category < ShipShape.CATEGORIES.length; category++)
+            for (ShipShape shape : ShipShape.distinct(ShipShape.CATEGORIES[category])) {
+                shapes[count] = shape;
+                shapeCategory[count++] = category;
+            }
+        floating = new int[composition.length];
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShooter#newGame(battleship.BoardGeometry, java.util.SplittableRandom)
+     */
+    @Override
+    public void newGame(BoardGeometry geometry, SplittableRandom random) {
+        if (geometry != this.geometry)
+            prepare(geometry);
+        this.random = random;
+
+        System.arraycopy(start, 0, legal, 0, start.length);
+        for (int category = 0; category < cover.length; category++)
+            System.arraycopy(startCover[category], 0, cover[category], 0, cover[category].length);
+        System.arraycopy(startDensity, 0, density, 0, density.length);
+        System.arraycopy(composition, 0, floating, 0, floating.length);
+        shot.clear();
+        blocked.clear();
+        unsunk.clear();
+        hitCount = 0;
+    }
+
+    /**
+     * Sizes the buffers for a board and counts the placements on the empty board
+     */
+    private void prepare(BoardGeometry geometry) {
+        this.geometry = geometry;
+        int cells = geometry.getCellCount();
+        words = (cells + 63) >>> 6;
+        offsets = new int[shapes.length][];
+        start = new long[shapes.length * words];
+        legal = new long[shapes.length * words];
+        startCover = new int[composition.length][cells];
+        cover = new int[composition.length][cells];
+        startDensity = new int[cells];
+        density = new int[cells];
+
+        for (int s = 0; s < shapes.length; s++) {
+            offsets[s] = shapes[s].cellOffsets(geometry.getColumns());
+            for (int anchor = 0; anchor < cells; anchor++)
+                if (shapes[s].fits(geometry, geometry.row(anchor), geometry.column(anchor))) {
+                    start[s * words + (anchor >>> 6)] |= 1L << anchor;
+                    for (int offset : offsets[s]) {
+                        startCover[shapeCategory[s]][anchor + offset]++;
+                        startDensity[anchor + offset] += composition[shapeCategory[s]];
+                    }
+                }
+        }
+
+        shot = new Bitboard(cells);
+        blocked = new Bitboard(cells);
+        unsunk = new Bitboard(cells);
+        hits = new int[cells];
+        score = new int[cells];
+        scored = new int[cells];
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShooter#nextShot()
+     */
+    @Override
+    public int nextShot() {
+        int cell = hitCount > 0 ? target() : -1;
+        return cell >= 0 ? cell : hunt();
+    }
+
+    /**
+     * @return the unshot cell of highest density, ties broken at random
+     */
+    private int hunt() {
+        int best = -1;
+        int bestDensity = -1;
+        int ties = 0;
+        for (int cell = 0; cell < density.length; cell++)
+            if (!shot.get(cell) && !blocked.get(cell)) {
+                if (density[cell] > bestDensity) {
+                    best = cell;
+                    bestDensity = density[cell];
+                    ties = 1;
+                } else if (density[cell] == bestDensity && random.nextInt(++ties) == 0)
+                    best = cell;
+            }
+        for (int cell = 0; best < 0 && cell < density.length; cell++)
+            if (!shot.get(cell))
+                best = cell;
+        return best < 0 ? 0 : best;
+    }
+
+    /**
+     * @return the unshot cell covered by most legal placements through the
+     * unsunk hits, or -1 if there is none
+     */
+    private int target() {
+        int count = 0;
+        for (int i = 0; i < hitCount; i++)
+            for (int s = 0; s < shapes.length; s++) {
+                int weight = floating[shapeCategory[s]];
+                if (weight == 0)
+                    continue;
+                for (int offset : offsets[s]) {
+                    int anchor = hits[i] - offset;
+                    if (anchor >= 0 && anchor < density.length && isLegal(s, anchor))
+                        for (int other : offsets[s]) {
+                            int cell = anchor + other;
+                            if (!shot.get(cell)) {
+                                if (score[cell] == 0)
+                                    scored[count++] = cell;
+                                score[cell] += weight;
+                            }
+                        }
+                }
+            }
+
+        int best = -1;
+        int ties = 0;
+        for (int i = 0; i < count; i++) {
+            int cell = scored[i];
+            if (best < 0 || score[cell] > score[best]) {
+                best = cell;
+                ties = 1;
+            } else if (score[cell] == score[best] && random.nextInt(++ties) == 0)
+                best = cell;
+        }
+        for (int i = 0; i < count; i++)
+            score[scored[i]] = 0;
+        return best;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShooter#shotResult(int, boolean, battleship.IShip)
+     */
+    @Override
+    public void shotResult(int cell, boolean hit, IShip sunk) {
+        if (!geometry.contains(cell) || shot.get(cell))
+            return;
+        shot.set(cell);
+
+        if (!hit)
+            block(cell);
+        else if (sunk == null) {
+            unsunk.set(cell);
+            hits[hitCount++] = cell;
+        } else
+            sink(sunk);
+    }
+
+    /**
+     * Takes a sunk ship out of the counts and blocks its cells and halo
+     */
+    private void sink(IShip sunk) {
+        int category = ShipShape.categoryIndex(sunk.getCategory());
+        if (category >= 0 && floating[category] > 0) {
+            floating[category]--;
+            int[] counts = cover[category];
+            for (int cell = 0; cell < density.length; cell++)
+                density[cell] -= counts[cell];
+        }
+
+        for (IPosition p : sunk.getPositions()) {
+            if (geometry.contains(p.getRow(), p.getColumn()))
+                unsunk.clear(geometry.cell(p.getRow(), p.getColumn()));
+            for (int r = p.getRow() - 1; r <= p.getRow() + 1; r++)
+                for (int c = p.getColumn() - 1; c <= p.getColumn() + 1; c++)
+                    if (geometry.contains(r, c))
+                        block(geometry.cell(r, c));
+        }
+
+        int kept = 0;
+        for (int i = 0; i < hitCount; i++)
+            if (unsunk.get(hits[i]))
+                hits[kept++] = hits[i];
+        hitCount = kept;
+    }
+
+    /**
+     * Retires every legal placement that covers a cell known to hold no ship
+     * afloat
+     */
+    private void block(int cell) {
+        if (blocked.get(cell))
+            return;
+        blocked.set(cell);
+
+        for (int s = 0; s < shapes.length; s++) {
+            int category = shapeCategory[s];
+            int weight = floating[category];
+            if (weight == 0)
+                continue;
+            int[] counts = cover[category];
+            for (int offset : offsets[s]) {
+                int anchor = cell - offset;
+                if (anchor >= 0 && anchor < density.length && isLegal(s, anchor)) {
+                    legal[s * words + (anchor >>> 6)] &= ~(1L << anchor);
+                    for (int other : offsets[s]) {
+                        counts[anchor + other]--;
+                        density[anchor + other] -= weight;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isLegal(int shape, int anchor) {
+        return (legal[shape * words + (anchor >>> 6)] & (1L << anchor)) != 0;
+    }
+
+    /**
+     * @param cell a cell of the board
+     * @return the current density of the cell
+     */
+    int densityAt(int cell) {
+        return density[cell];
+    }
+
+}
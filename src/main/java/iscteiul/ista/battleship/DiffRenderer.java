@@ -0,0 +1,229 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps remote viewers of a game up to date by sending each one only the cells
+ * that changed since the last frame it was sent.
+ * <p>
+ * A frame is an immutable picture of the board, one BoardRenderer symbol per
+ * cell. The game's thread calls update after each salvo; a new frame is built
+ * only if the game's hash or the layout of the fleet moved, and is then shared
+ * by every viewer. The layout is keyed like the hash, from the cells the ships
+ * occupy, so a fleet cleared and filled again is seen even when the game was
+ * reset to the same hash. A viewer only remembers the frame it last received.
+ * The changes from one frame to another are encoded as runs of cells taking
+ * the same symbol: the distance from the end of the previous run and the
+ * length of the run, as varints, then the symbol, into a buffer sized for
+ * those runs alone. The runs from a given older frame are encoded once and
+ * cached in the newer frame, so viewers that were at the same frame share one
+ * encoding, whatever their number.
+ * <p>
+ * update must be called from the game's thread; diff may be called from any
+ * thread, for different viewers.
+ */
+public class DiffRenderer {
+    private static final long BLANK = -1;
+
+    private final IGame game;
+    private final IFleet fleet;
+    private final boolean showShips;
+
+    private volatile Frame current;
+    private long versions;
+
+    /**
+     * @param game      the game to show
+     * @param fleet     the fleet under fire in the game
+     * @param showShips true to show the ships afloat, as to their owner, or
+     *                  false to show only the shots, as to the opponent
+     */
+    public DiffRenderer(IGame game, IFleet fleet, boolean showShips) {
+        assert game != null && fleet != null;
+
+        this.game = game;
+        this.fleet = fleet;
+        this.showShips = showShips;
+        current = build(layout());
+    }
+
+    /**
+     * Publishes a new frame if the game or its fleet changed since the last one
+     *
+     * @return the current frame
+     */
+    public Frame update() {
+        long layout = layout();
+        if (current.hash != game.getHash() || current.layout != layout)
+            current = build(layout);
+        return current;
+    }
+
+    /**
+     * @return the key of the cells occupied by the ships of the fleet
+     */
+    private long layout() {
+        BoardGeometry geometry = fleet.getGeometry();
+        long layout = Zobrist.EMPTY;
+        for (IShip s : fleet.getShips())
+            for (IPosition p : s.getPositions())
+                layout ^= Zobrist.key(geometry.cell(p.getRow(), p.getColumn()), true);
+        return layout;
+    }
+
+    private Frame build(long layout) {
+        BoardGeometry geometry = game.getGeometry();
+        byte[] cells = new byte[geometry.getCellCount()];
+        Arrays.fill(cells, (byte) BoardRenderer.WATER);
+        if (showShips)
+            for (IShip s : fleet.getShips())
+                for (IPosition p : s.getPositions())
+                    cells[geometry.cell(p.getRow(), p.getColumn())] = BoardRenderer.SHIP;
+        for (IPosition p : game.getShots())
+            cells[geometry.cell(p.getRow(), p.getColumn())] =
+                    (byte) (fleet.shipAt(p) != null ? BoardRenderer.HIT : BoardRenderer.MISS);
+        return new Frame(versions++, game.getHash(), layout, cells);
+    }
+
+    /**
+     * @return the frame last published
+     */
+    public Frame frame() {
+        return current;
+    }
+
+    /**
+     * Brings a viewer up to the frame last published
+     *
+     * @param viewer the viewer
+     * @return the runs of cells that changed since the viewer's last frame, or
+     * since a board of water for a new viewer; empty if nothing changed
+     */
+    public ByteBuffer diff(Viewer viewer) {
+        assert viewer != null;
+
+        Frame to = current;
+        Frame from = viewer.last;
+        viewer.last = to;
+        long key = from == null ? BLANK : from.version;
+        ByteBuffer runs = to.runs.get(key);
+        if (runs == null) {
+            runs = encode(from, to);
+            to.runs.putIfAbsent(key, runs);
+        }
+        return runs.asReadOnlyBuffer();
+    }
+
+    private static ByteBuffer encode(Frame from, Frame to) {
+        ByteBuffer out = ByteBuffer.allocate(runs(from, to, null));
+        runs(from, to, out);
+        return out.flip();
+    }
+
+    /**
+     * Walks the runs of cells that changed from one frame to the other
+     *
+     * @param out where to write the runs, or null to only measure them
+     * @return the number of bytes the runs take
+     */
+    private static int runs(Frame from, Frame to, ByteBuffer out) {
+        byte[] cells = to.cells;
+        int size = 0;
+        int end = 0;
+        for (int cell = 0; cell < cells.length; ) {
+            if (cells[cell] == symbolAt(from, cell)) {
+                cell++;
+                continue;
+            }
+            int start = cell;
+            byte symbol = cells[cell];
+            while (cell < cells.length && cells[cell] == symbol && symbolAt(from, cell) != symbol)
+                cell++;
+            size += GameCodec.varintSize(start - end) + GameCodec.varintSize(cell - start) + 1;
+            if (out != null) {
+                GameCodec.putVarint(out, start - end);
+                GameCodec.putVarint(out, cell - start);
+                out.put(symbol);
+            }
+            end = cell;
+        }
+        return size;
+    }
+
+    private static byte symbolAt(Frame frame, int cell) {
+        return frame == null ? (byte) BoardRenderer.WATER : frame.cells[cell];
+    }
+
+    /**
+     * Applies runs sent by diff to a viewer's copy of the board
+     *
+     * @param runs  the runs, read from their position to their limit
+     * @param board the viewer's board, one symbol per cell, all water at first
+     * @throws IllegalArgumentException if a run falls off the board
+     */
+    public static void apply(ByteBuffer runs, byte[] board) throws IllegalArgumentException {
+        int cell = 0;
+        while (runs.hasRemaining()) {
+            cell += GameCodec.getVarint(runs);
+            int length = GameCodec.getVarint(runs);
+            byte symbol = runs.get();
+            if (length > board.length - cell)
+                throw new IllegalArgumentException("ERROR! run off the board at cell " + cell);
+            Arrays.fill(board, cell, cell + length, symbol);
+            cell += length;
+        }
+    }
+
+    /**
+     * An immutable picture of the board, shared by all the viewers it is sent
+     * to, with the runs from older frames encoded so far
+     */
+    public static final class Frame {
+        private final long version;
+        private final long hash;
+        private final long layout;
+        private final byte[] cells;
+        private final Map<Long, ByteBuffer> runs;
+
+        private Frame(long version, long hash, long layout, byte[] cells) {
+            this.version = version;
+            this.hash = hash;
+            this.layout = layout;
+            this.cells = cells;
+            runs = new ConcurrentHashMap<>();
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @param cell a cell of the board
+         * @return its symbol
+         */
+        public char symbolAt(int cell) {
+            return (char) cells[cell];
+        }
+    }
+
+    /**
+     * A viewer, which remembers the last frame it was sent
+     */
+    public static final class Viewer {
+        private Frame last;
+
+        /**
+         * @return the last frame sent, or null if none was
+         */
+        public Frame getLast() {
+            return last;
+        }
+    }
+
+}
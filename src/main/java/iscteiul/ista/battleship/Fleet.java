@@ -3,8 +3,11 @@
  */
 package iscteiul.ista.battleship;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Fleet implements IFleet {
     /**
@@ -13,16 +16,73 @@ public class Fleet implements IFleet {
      * @param ships The list of ships
      */
     static void printShips(List<IShip> ships) {
+        printShips(ships, System.out);
+    }
+
+    /**
+     * This operation prints all the given ships to a stream
+     *
+     * @param ships The list of ships
+     * @param out   The stream to print to
+     */
+    static void printShips(List<IShip> ships, PrintStream out) {
+        StringBuilder lines = new StringBuilder();
         for (IShip ship : ships)
-            System.out.println(ship);
+            lines.append(ship).append(System.lineSeparator());
+        out.print(lines);
     }
 
     // -----------------------------------------------------
 
+    private BoardGeometry geometry;
     private List<IShip> ships;
 
+    /**
+     * Cells occupied by the ships of this fleet
+     */
+    private Bitboard occupied;
+
+    /**
+     * The ship on each occupied cell
+     */
+    private SpatialIndex shipGrid;
+
+    /**
+     * Cells where no new ship may be placed: the occupied cells plus a 1-cell
+     * halo around each ship
+     */
+    private Bitboard forbidden;
+
+    /**
+     * Number of ships still floating, overall and per category
+     */
+    private int floatingCount;
+    private Map<String, int[]> floatingByCategory;
+
+    private List<ISinkListener> sinkListeners;
+
     public Fleet() {
+        this(BoardGeometry.STANDARD);
+    }
+
+    /**
+     * @param geometry the board and fleet dimensions
+     */
+    public Fleet(BoardGeometry geometry) {
+        assert geometry != null;
+
+        this.geometry = geometry;
         ships = new ArrayList<>();
+        occupied = new Bitboard(geometry.getCellCount());
+        shipGrid = new SpatialIndex(geometry);
+        forbidden = new Bitboard(geometry.getCellCount());
+        floatingByCategory = new HashMap<>();
+        sinkListeners = new ArrayList<>();
+    }
+
+    @Override
+    public BoardGeometry getGeometry() {
+        return geometry;
     }
 
     @Override
@@ -38,13 +98,33 @@ public class Fleet implements IFleet {
     @Override
     public boolean addShip(IShip s) {
         boolean result = false;
-        if ((ships.size() <= FLEET_SIZE) && (isInsideBoard(s)) && (!colisionRisk(s))) {
+        if ((ships.size() <= geometry.getFleetSize()) && (isInsideBoard(s)) && (!colisionRisk(s))) {
             ships.add(s);
+            index(s);
+            if (s.stillFloating()) {
+                floatingCount++;
+                floatingByCategory.computeIfAbsent(s.getCategory(), k -> new int[1])[0]++;
+            }
             result = true;
         }
         return result;
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#canPlace(battleship.ShipShape, int, int)
+     */
+    @Override
+    public boolean canPlace(ShipShape shape, int row, int column) {
+        if (ships.size() > geometry.getFleetSize() || !shape.fits(geometry, row, column))
+            return false;
+        for (int i = 0; i < shape.getSize(); i++)
+            if (forbidden.get(geometry.cell(row + shape.rowOffset(i), column + shape.columnOffset(i))))
+                return false;
+        return true;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -82,22 +162,194 @@ public class Fleet implements IFleet {
      */
     @Override
     public IShip shipAt(IPosition pos) {
-        for (int i = 0; i < ships.size(); i++)
-            if (ships.get(i).occupies(pos))
-                return ships.get(i);
-        return null;
+        int cell = cellOf(pos.getRow(), pos.getColumn());
+        return cell < 0 ? null : shipAt(cell);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#shipAt(int)
+     */
+    @Override
+    public IShip shipAt(int cell) {
+        if (!occupied.get(cell))
+            return null;
+        return shipGrid.shipAt(geometry.row(cell), geometry.column(cell));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#shoot(battleship.IPosition)
+     */
+    @Override
+    public IShip shoot(IPosition pos) {
+        int cell = cellOf(pos.getRow(), pos.getColumn());
+        return cell < 0 ? null : shoot(cell);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#shoot(int)
+     */
+    @Override
+    public IShip shoot(int cell) {
+        IShip s = shipAt(cell);
+        if (s != null && s.stillFloating()) {
+            s.shoot(geometry.row(cell), geometry.column(cell));
+            if (!s.stillFloating())
+                sunk(s);
+        }
+        return s;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#unshoot(int)
+     */
+    @Override
+    public IShip unshoot(int cell) {
+        IShip s = shipAt(cell);
+        if (s != null) {
+            boolean wasSunk = !s.stillFloating();
+            s.repair(geometry.row(cell), geometry.column(cell));
+            if (wasSunk && s.stillFloating()) {
+                floatingCount++;
+                floatingByCategory.get(s.getCategory())[0]++;
+            }
+        }
+        return s;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#getFloatingCount()
+     */
+    @Override
+    public int getFloatingCount() {
+        return floatingCount;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#getFloatingCount(java.lang.String)
+     */
+    @Override
+    public int getFloatingCount(String category) {
+        int[] count = floatingByCategory.get(category);
+        return count == null ? 0 : count[0];
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#addSinkListener(battleship.ISinkListener)
+     */
+    @Override
+    public void addSinkListener(ISinkListener listener) {
+        assert listener != null;
+
+        sinkListeners.add(listener);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#reset()
+     */
+    @Override
+    public void reset() {
+        floatingCount = 0;
+        for (int[] count : floatingByCategory.values())
+            count[0] = 0;
+        for (IShip s : ships) {
+            s.repair();
+            floatingCount++;
+            floatingByCategory.get(s.getCategory())[0]++;
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#clear()
+     */
+    @Override
+    public void clear() {
+        ships.clear();
+        occupied.clear();
+        shipGrid.clear();
+        forbidden.clear();
+        floatingCount = 0;
+        floatingByCategory.clear();
+    }
+
+    /**
+     * This operation updates the floating counters and notifies the listeners
+     * when a ship goes down
+     *
+     * @param s The ship that has just been sunk
+     */
+    private void sunk(IShip s) {
+        floatingCount--;
+        floatingByCategory.get(s.getCategory())[0]--;
+        for (ISinkListener listener : sinkListeners)
+            listener.shipSunk(s);
+    }
+
+    /**
+     * This operation maps a position of the board to its cell index
+     *
+     * @param row    The row of the position
+     * @param column The column of the position
+     * @return The cell index, or -1 if the position is outside the board
+     */
+    private int cellOf(int row, int column) {
+        return geometry.contains(row, column) ? geometry.cell(row, column) : -1;
+    }
+
+    /**
+     * This operation records the cells of a newly added ship in the occupancy
+     * index and marks them, together with their neighbours, as forbidden
+     *
+     * @param s The ship that has just been added
+     */
+    private void index(IShip s) {
+        shipGrid.add(s);
+        for (IPosition p : s.getPositions()) {
+            int cell = cellOf(p.getRow(), p.getColumn());
+            occupied.set(cell);
+
+            for (int r = p.getRow() - 1; r <= p.getRow() + 1; r++)
+                for (int c = p.getColumn() - 1; c <= p.getColumn() + 1; c++) {
+                    int neighbour = cellOf(r, c);
+                    if (neighbour >= 0)
+                        forbidden.set(neighbour);
+                }
+        }
     }
 
     private boolean isInsideBoard(IShip s) {
-        return (s.getLeftMostPos() >= 0 && s.getRightMostPos() <= BOARD_SIZE - 1 && s.getTopMostPos() >= 0
-                && s.getBottomMostPos() <= BOARD_SIZE - 1);
+        return (s.getLeftMostPos() >= 0 && s.getRightMostPos() <= geometry.getColumns() - 1 && s.getTopMostPos() >= 0
+                && s.getBottomMostPos() <= geometry.getRows() - 1);
     }
 
+    /**
+     * This operation checks whether a ship, already known to be inside the board,
+     * touches or is adjacent to any ship of the fleet
+     *
+     * @param s The candidate ship
+     * @return true if any of its cells falls in the forbidden zone
+     */
     private boolean colisionRisk(IShip s) {
-        for (int i = 0; i < ships.size(); i++) {
-            if (ships.get(i).tooCloseTo(s))
+        for (IPosition p : s.getPositions())
+            if (forbidden.get(geometry.cell(p.getRow(), p.getColumn())))
                 return true;
-        }
         return false;
     }
 
@@ -106,13 +358,22 @@ public class Fleet implements IFleet {
      * This operation shows the state of a fleet
      */
     public void printStatus() {
-        printAllShips();
-        printFloatingShips();
-        printShipsByCategory("Galeao");
-        printShipsByCategory("Fragata");
-        printShipsByCategory("Nau");
-        printShipsByCategory("Caravela");
-        printShipsByCategory("Barca");
+        printStatus(System.out);
+    }
+
+    /**
+     * This operation shows the state of a fleet on a stream
+     *
+     * @param out The stream to print to
+     */
+    void printStatus(PrintStream out) {
+        printShips(ships, out);
+        printShips(getFloatingShips(), out);
+        printShips(getShipsLike("Galeao"), out);
+        printShips(getShipsLike("Fragata"), out);
+        printShips(getShipsLike("Nau"), out);
+        printShips(getShipsLike("Caravela"), out);
+        printShips(getShipsLike("Barca"), out);
     }
 
     /**
@@ -0,0 +1,539 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates random legal fleets. Ships are placed largest first, each one drawn
+ * uniformly among the legal placements of its category: every distinct shape
+ * of the category keeps a bitboard of the anchor cells where it could still be
+ * placed, and placing a ship clears, word by word, the anchors of every shape
+ * that would touch the newly forbidden cells. A draw therefore never fails; if
+ * a category has no legal placement left the fleet is started over. On small
+ * boards the halos are precomputed, and the anchors of a category are rebuilt
+ * in a few word operations when its turn comes rather than kept up to date.
+ * <p>
+ * A generator reuses its buffers between fleets and must not be shared between
+ * threads. The last sample can be inspected through shapeOf/anchorOf, which is
+ * all a simulation needs, or turned into a Fleet with toFleet.
+ */
+public class FleetGenerator {
+    /**
+     * The standard fleet, as a number of ships per ShipShape.CATEGORIES entry
+     */
+    public static final int[] STANDARD_FLEET = {4, 3, 2, 1, 1};
+
+    private static final Compass[] BEARINGS = {Compass.NORTH, Compass.SOUTH, Compass.EAST, Compass.WEST};
+
+    /**
+     * Number of dead ends after which a composition is deemed impossible
+     */
+    private static final int MAX_RESTARTS = 10_000;
+
+    /**
+     * Largest number of words per shape spent on precomputed halos
+     */
+    private static final int HALO_TABLE_WORDS = 1 << 16;
+
+    /**
+     * Boards of at most this many words rebuild the anchors of a category from
+     * the forbidden cells when its turn comes, instead of keeping them up to
+     * date while the larger ships are placed
+     */
+    private static final int REBUILD_WORDS = 4;
+
+    private final BoardGeometry geometry;
+    private final int words;
+    private final boolean rebuild;
+
+    /**
+     * The distinct shapes of the categories, with the bearings that produce
+     * them, their cell offsets and the largest of these
+     */
+    private final ShipShape[] shapes;
+    private final Compass[][] shapeBearings;
+    private final int[][] offsets;
+    private final int[] span;
+
+    /**
+     * The shapes of each category, and the category of every ship to place, in
+     * placement order
+     */
+    private final int[][] categoryShapes;
+    private int[] order;
+
+    /**
+     * Anchors where each shape fits on the empty board minus the blocked cells,
+     * one bitboard per shape, words apart
+     */
+    private final long[] start;
+    private final int[] startCount;
+
+    /**
+     * Anchors still legal for each shape during a draw, laid out as start, and
+     * their number
+     */
+    private final long[] legal;
+    private final int[] legalCount;
+
+    /**
+     * Cells next to or under a placed ship, and the ones added by the last ship
+     */
+    private final long[] forbidden;
+    private final long[] fresh;
+
+    /**
+     * On small boards, the halo of every shape at every anchor, words apart;
+     * null on boards where the table would be too large
+     */
+    private final long[][] halos;
+
+    /**
+     * The last sample: shape and anchor cell of every ship
+     */
+    private int[] sampleShape;
+    private int[] sampleAnchor;
+    private Compass[] sampleBearing;
+
+    /**
+     * Generates the standard fleet on the standard board
+     */
+    public FleetGenerator() {
+        this(BoardGeometry.STANDARD, STANDARD_FLEET);
+    }
+
+    /**
+     * @param geometry    the board
+     * @param composition the number of ships per ShipShape.CATEGORIES entry
+     */
+    public FleetGenerator(BoardGeometry geometry, int[] composition) throws IllegalArgumentException {
+        assert geometry != null && composition != null;
+        if (composition.length != ShipShape.CATEGORIES.length)
+            throw new IllegalArgumentException("ERROR! fleet composition must give one count per category");
+
+        this.geometry = geometry;
+        words = (geometry.getCellCount() + 63) >>> 6;
+        rebuild = words <= REBUILD_WORDS;
+
+        order = placementOrder(composition);
+        List<ShipShape> distinct = new ArrayList<>();
+        List<List<Compass>> bearings = new ArrayList<>();
+        categoryShapes = new int[composition.length][];
+        for (int category = 0; category < composition.length; category++) {
+            int first = distinct.size();
+            for (Compass bearing : BEARINGS) {
+                ShipShape shape = ShipShape.of(ShipShape.CATEGORIES[category], bearing);
+                int same = first;
+                while (same < distinct.size() && !distinct.get(same).sameCells(shape))
+                    same++;
+                if (same == distinct.size()) {
+                    distinct.add(shape);
+                    bearings.add(new ArrayList<>());
+                }
+                bearings.get(same).add(bearing);
+            }
+            categoryShapes[category] = new int[distinct.size() - first];
+            for (int i = 0; i < categoryShapes[category].length; i++)
+                categoryShapes[category][i] = first + i;
+        }
+
+        shapes = distinct.toArray(new ShipShape[0]);
+        shapeBearings = new Compass[shapes.length][];
+        offsets = new int[shapes.length][];
+        span = new int[shapes.length];
+        start = new long[shapes.length * words];
+        startCount = new int[shapes.length];
+        legal = new long[shapes.length * words];
+        legalCount = new int[shapes.length];
+        for (int s = 0; s < shapes.length; s++) {
+            shapeBearings[s] = bearings.get(s).toArray(new Compass[0]);
+            offsets[s] = shapes[s].cellOffsets(geometry.getColumns());
+            for (int offset : offsets[s])
+                span[s] = Math.max(span[s], offset);
+        }
+        setBlocked(null);
+
+        forbidden = new long[words];
+        fresh = new long[words];
+        if ((long) geometry.getCellCount() * words <= HALO_TABLE_WORDS) {
+            halos = new long[shapes.length][geometry.getCellCount() * words];
+            long[] halo = new long[words];
+            for (int s = 0; s < shapes.length; s++)
+                for (int anchor = 0; anchor < geometry.getCellCount(); anchor++)
+                    if (shapes[s].fits(geometry, geometry.row(anchor), geometry.column(anchor))) {
+                        Arrays.fill(halo, 0L);
+                        markHalo(halo, s, anchor);
+                        System.arraycopy(halo, 0, halos[s], anchor * words, words);
+                    }
+        } else
+            halos = null;
+        sampleShape = new int[order.length];
+        sampleAnchor = new int[order.length];
+        sampleBearing = new Compass[order.length];
+    }
+
+    /**
+     * @return the category of every ship of the composition, largest first
+     */
+    private static int[] placementOrder(int[] composition) throws IllegalArgumentException {
+        int ships = 0;
+        for (int count : composition) {
+            if (count < 0)
+                throw new IllegalArgumentException("ERROR! negative ship count in fleet composition");
+            ships += count;
+        }
+        int[] order = new int[ships];
+        for (int category = composition.length - 1, i = 0; category >= 0; category--)
+            for (int n = 0; n < composition[category]; n++)
+                order[i++] = category;
+        return order;
+    }
+
+    /**
+     * Changes the number of ships of the following fleets, keeping the blocked
+     * cells and the tables of the board
+     *
+     * @param composition the number of ships per ShipShape.CATEGORIES entry
+     */
+    public void setComposition(int[] composition) throws IllegalArgumentException {
+        assert composition != null;
+        if (composition.length != ShipShape.CATEGORIES.length)
+            throw new IllegalArgumentException("ERROR! fleet composition must give one count per category");
+
+        order = placementOrder(composition);
+        if (sampleShape.length < order.length) {
+            sampleShape = new int[order.length];
+            sampleAnchor = new int[order.length];
+            sampleBearing = new Compass[order.length];
+        }
+    }
+
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * @return the number of ships of every generated fleet
+     */
+    public int getShipCount() {
+        return order.length;
+    }
+
+    /**
+     * Restricts the following fleets to placements that avoid the given cells,
+     * e.g. cells already known to be water. Ships may still be adjacent to them.
+     *
+     * @param blocked the cells no ship may occupy, or null to lift the restriction
+     */
+    public void setBlocked(Bitboard blocked) {
+        for (int s = 0; s < shapes.length; s++) {
+            int base = s * words;
+            Arrays.fill(start, base, base + words, 0L);
+            ShipShape shape = shapes[s];
+            for (int row = 0; row < geometry.getRows(); row++)
+                for (int column = 0; column < geometry.getColumns(); column++)
+                    if (shape.fits(geometry, row, column) && !covers(blocked, s, geometry.cell(row, column))) {
+                        int cell = geometry.cell(row, column);
+                        start[base + (cell >>> 6)] |= 1L << cell;
+                    }
+            startCount[s] = 0;
+            for (int w = base; w < base + words; w++)
+                startCount[s] += Long.bitCount(start[w]);
+        }
+    }
+
+    /**
+     * Adds one cell to the blocked ones, as setBlocked would, only clearing
+     * the anchors of the placements that cover it
+     *
+     * @param cell a cell of the board no ship may occupy
+     */
+    public void block(int cell) {
+        assert geometry.contains(cell);
+
+        for (int s = 0; s < shapes.length; s++)
+            for (int offset : offsets[s]) {
+                int anchor = cell - offset;
+                if (!geometry.contains(anchor))
+                    continue;
+                int w = s * words + (anchor >>> 6);
+                if ((start[w] & 1L << anchor) != 0) {
+                    start[w] &= ~(1L << anchor);
+                    startCount[s]--;
+                }
+            }
+    }
+
+    private boolean covers(Bitboard blocked, int shape, int anchor) {
+        if (blocked != null)
+            for (int offset : offsets[shape])
+                if (blocked.get(anchor + offset))
+                    return true;
+        return false;
+    }
+
+    /**
+     * Draws a new fleet, which can then be read with shapeOf and anchorOf
+     *
+     * @param random the source of randomness
+     * @throws IllegalStateException if the fleet does not seem to fit on the board
+     */
+    public void next(SplittableRandom random) throws IllegalStateException {
+        for (int restarts = 0; restarts < MAX_RESTARTS; restarts++)
+            if (attempt(random))
+                return;
+        throw new IllegalStateException("ERROR! the fleet does not fit on a " + geometry + " board");
+    }
+
+    /**
+     * Draws a new fleet, giving up at a deadline, which is checked after every
+     * dead end
+     *
+     * @param random   the source of randomness
+     * @param deadline the System.nanoTime at which to give up
+     * @return false if the deadline passed before a fleet was drawn
+     * @throws IllegalStateException if the fleet does not seem to fit on the board
+     */
+    boolean next(SplittableRandom random, long deadline) throws IllegalStateException {
+        for (int restarts = 0; restarts < MAX_RESTARTS; restarts++) {
+            if (attempt(random))
+                return true;
+            if (System.nanoTime() - deadline >= 0)
+                return false;
+        }
+        throw new IllegalStateException("ERROR! the fleet does not fit on a " + geometry + " board");
+    }
+
+    /**
+     * Draws a new fleet and builds it
+     *
+     * @param random the source of randomness
+     * @return the new fleet
+     */
+    public IFleet generate(SplittableRandom random) {
+        next(random);
+        return toFleet();
+    }
+
+    /**
+     * @param i index of a ship of the last sample
+     * @return the shape of that ship
+     */
+    public ShipShape shapeOf(int i) {
+        return shapes[sampleShape[i]];
+    }
+
+    /**
+     * @param i index of a ship of the last sample
+     * @return the cell offsets of its shape, which must not be modified
+     */
+    int[] offsetsOf(int i) {
+        return offsets[sampleShape[i]];
+    }
+
+    /**
+     * @param i index of a ship of the last sample
+     * @return the bearing of that ship
+     */
+    public Compass bearingOf(int i) {
+        return sampleBearing[i];
+    }
+
+    /**
+     * @param i index of a ship of the last sample
+     * @return the cell of the anchor of that ship
+     */
+    public int anchorOf(int i) {
+        return sampleAnchor[i];
+    }
+
+    /**
+     * @return a new fleet with the ships of the last sample
+     */
+    public IFleet toFleet() {
+        IFleet fleet = new Fleet(geometry);
+        fill(fleet);
+        return fleet;
+    }
+
+    /**
+     * Adds the ships of the last sample to an empty fleet
+     *
+     * @param fleet a fleet on this generator's board, e.g. one just cleared
+     */
+    public void fill(IFleet fleet) {
+        assert fleet.getShips().isEmpty();
+
+        for (int i = 0; i < order.length; i++) {
+            int anchor = sampleAnchor[i];
+            IShip s = Ship.buildShip(order[i], sampleBearing[i],
+                    Cell.of(geometry.row(anchor), geometry.column(anchor)));
+            if (!fleet.addShip(s))
+                throw new IllegalStateException("ERROR! the fleet does not accept " + s);
+        }
+    }
+
+    private boolean attempt(SplittableRandom random) {
+        System.arraycopy(start, 0, legal, 0, start.length);
+        System.arraycopy(startCount, 0, legalCount, 0, startCount.length);
+        Arrays.fill(forbidden, 0L);
+
+        for (int i = 0; i < order.length; i++) {
+            int[] candidates = categoryShapes[order[i]];
+            if (rebuild && i > 0 && order[i] != order[i - 1])
+                for (int s : candidates)
+                    rebuildAnchors(s);
+            int total = 0;
+            for (int s : candidates)
+                total += legalCount[s];
+            if (total == 0)
+                return false;
+
+            int k = random.nextInt(total);
+            int shape = 0;
+            for (int s : candidates) {
+                if (k < legalCount[s]) {
+                    shape = s;
+                    break;
+                }
+                k -= legalCount[s];
+            }
+            int anchor = select(shape * words, k);
+            Compass[] alternatives = shapeBearings[shape];
+
+            sampleShape[i] = shape;
+            sampleAnchor[i] = anchor;
+            sampleBearing[i] = alternatives.length == 1 ? alternatives[0]
+                    : alternatives[random.nextInt(alternatives.length)];
+            if (i + 1 < order.length) {
+                // categories are placed from the last to the first
+                int next = order[i + 1];
+                forbid(shape, anchor, next, !rebuild ? 0 : next == order[i] ? next : next + 1);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the cell of the k-th (from 0) legal anchor of the shape whose
+     * anchors start at the given word
+     */
+    private int select(int base, int k) {
+        int w = base;
+        while (k >= Long.bitCount(legal[w]))
+            k -= Long.bitCount(legal[w++]);
+        long word = legal[w];
+        for (; k > 0; k--)
+            word &= word - 1;
+        return ((w - base) << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Adds to a bitboard the cells of a ship and of its neighbours
+     */
+    private void markHalo(long[] target, int shape, int anchor) {
+        int rows = geometry.getRows();
+        int columns = geometry.getColumns();
+        int row = geometry.row(anchor);
+        int column = geometry.column(anchor);
+        ShipShape placed = shapes[shape];
+
+        for (int i = 0; i < placed.getSize(); i++) {
+            int r0 = row + placed.rowOffset(i);
+            int c0 = column + placed.columnOffset(i);
+            int left = Math.max(c0 - 1, 0);
+            int right = Math.min(c0 + 1, columns - 1);
+            for (int r = Math.max(r0 - 1, 0); r <= Math.min(r0 + 1, rows - 1); r++)
+                for (int cell = r * columns + left; cell <= r * columns + right; cell++)
+                    target[cell >>> 6] |= 1L << cell;
+        }
+    }
+
+    /**
+     * Marks the halo of a placed ship as forbidden and clears the anchors that
+     * would overlap the newly forbidden cells, for the shapes of the categories
+     * from first down to last (none if last is greater)
+     */
+    private void forbid(int shape, int anchor, int first, int last) {
+        int rows = geometry.getRows();
+        int columns = geometry.getColumns();
+        int row = geometry.row(anchor);
+        int column = geometry.column(anchor);
+        ShipShape placed = shapes[shape];
+        int low = geometry.cell(Math.max(row + placed.getTop() - 1, 0), Math.max(column + placed.getLeft() - 1, 0));
+        int high = geometry.cell(Math.min(row + placed.getBottom() + 1, rows - 1),
+                Math.min(column + placed.getRight() + 1, columns - 1));
+
+        if (halos != null) {
+            long[] halo = halos[shape];
+            for (int w = low >>> 6, base = anchor * words; w <= high >>> 6; w++) {
+                fresh[w] = halo[base + w] & ~forbidden[w];
+                forbidden[w] |= halo[base + w];
+            }
+        } else {
+            markHalo(fresh, shape, anchor);
+            for (int w = low >>> 6; w <= high >>> 6; w++) {
+                fresh[w] &= ~forbidden[w];
+                forbidden[w] |= fresh[w];
+            }
+        }
+
+        for (int category = first; category >= last; category--)
+            for (int s : categoryShapes[category])
+                if (legalCount[s] > 0)
+                    clearAnchors(s, low, high);
+
+        Arrays.fill(fresh, low >>> 6, (high >>> 6) + 1, 0L);
+    }
+
+    /**
+     * Recomputes the anchors of a shape from the cells forbidden so far
+     */
+    private void rebuildAnchors(int s) {
+        int base = s * words;
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            long mask = 0;
+            for (int offset : offsets[s])
+                mask |= shifted(forbidden, w, offset);
+            legal[base + w] = start[base + w] & ~mask;
+            count += Long.bitCount(legal[base + w]);
+        }
+        legalCount[s] = count;
+    }
+
+    /**
+     * Clears the anchors a of a shape for which a + offset is a fresh cell, for
+     * any offset of the shape. Fresh cells lie between low and high.
+     */
+    private void clearAnchors(int s, int low, int high) {
+        int base = s * words;
+        int removed = 0;
+        for (int w = Math.max(low - span[s], 0) >>> 6; w <= high >>> 6; w++) {
+            long mask = 0;
+            for (int offset : offsets[s])
+                mask |= shifted(fresh, w, offset);
+            removed += Long.bitCount(legal[base + w] & mask);
+            legal[base + w] &= ~mask;
+        }
+        legalCount[s] -= removed;
+    }
+
+    /**
+     * @return word w of the bitboard shifted towards lower cells by offset
+     */
+    private long shifted(long[] bits, int w, int offset) {
+        int source = w + (offset >>> 6);
+        int shift = offset & 63;
+        long word = source < words ? bits[source] >>> shift : 0L;
+        if (shift != 0 && source + 1 < words)
+            word |= bits[source + 1] << (64 - shift);
+        return word;
+    }
+
+}
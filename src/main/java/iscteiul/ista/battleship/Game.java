@@ -3,7 +3,10 @@
  */
 package iscteiul.ista.battleship;
 
+import java.io.PrintStream;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -12,24 +15,85 @@ import java.util.List;
  */
 public class Game implements IGame {
     private IFleet fleet;
+    private BoardGeometry geometry;
+
+    /**
+     * The valid shots in firing order, as cell indexes, and a read-only view of
+     * them as positions
+     */
+    private int[] shotOrder;
+    private int shotCount;
     private List<IPosition> shots;
 
-    private Integer countInvalidShots;
-    private Integer countRepeatedShots;
-    private Integer countHits;
-    private Integer countSinks;
+    /**
+     * The cells already fired at, for constant-time repeated shot detection
+     */
+    private Bitboard shotCells;
+
+    private int countInvalidShots;
+    private int countRepeatedShots;
+    private int countHits;
+    private int countSinks;
+
+    /**
+     * Zobrist hash of the valid shots and their outcomes
+     */
+    private long hash;
+
+    /**
+     * Every shot fired, in order: the cell of each valid shot, and between them
+     * the invalid and repeated shots as one entry holding both counts, packed
+     * as ~(invalid << 32 | repeated). A snapshot is a length of this journal,
+     * and restoring it undoes the entries made since then, most recent first.
+     * The journal is sealed at every snapshot, so that no count entry spans
+     * one; below the seal the last count entry is only ever grown, so a game
+     * that is never snapshot keeps one entry per valid shot at most, plus one.
+     */
+    private long[] journal;
+    private int journalSize;
+    private int sealed;
+
+    /**
+     * The ship sunk by the last valid shot, if it sank one
+     */
+    private IShip lastSunk;
+
+    private List<IShotListener> shotListeners;
+
+    private BoardRenderer renderer;
 
 
     /**
      * @param fleet
      */
     public Game(IFleet fleet) {
-        shots = new ArrayList<>();
-        countInvalidShots = 0;
-        countRepeatedShots = 0;
+        geometry = fleet.getGeometry();
+        shotOrder = new int[Math.min(geometry.getCellCount(), 64)];
+        shots = new ShotList();
+        shotCells = new Bitboard(geometry.getCellCount());
+        journal = new long[shotOrder.length];
+        hash = Zobrist.EMPTY;
+        shotListeners = new ArrayList<>();
         this.fleet = fleet;
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getGeometry()
+     */
+    @Override
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * @return the fleet under fire
+     */
+    IFleet getFleet() {
+        return fleet;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -37,25 +101,92 @@ public class Game implements IGame {
      */
     @Override
     public IShip fire(IPosition pos) {
-        if (!validShot(pos))
+        return fire(validShot(pos) ? geometry.cell(pos.getRow(), pos.getColumn()) : -1);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#fire(int)
+     */
+    @Override
+    public IShip fire(int cell) {
+        return shoot(cell) == SUNK ? lastSunk : null;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#fire(int[], byte[])
+     */
+    @Override
+    public void fire(int[] cells, byte[] results) {
+        assert results.length >= cells.length;
+
+        for (int i = 0; i < cells.length; i++)
+            results[i] = shoot(cells[i]);
+    }
+
+    /**
+     * Fires a shot at a cell and notifies the listeners
+     *
+     * @param cell the target cell
+     * @return the outcome of the shot
+     */
+    private byte shoot(int cell) {
+        byte result = resolve(cell);
+        for (int i = 0; i < shotListeners.size(); i++)
+            shotListeners.get(i).shotFired(geometry.contains(cell) ? cell : -1, result);
+        return result;
+    }
+
+    /**
+     * Works out the outcome of a shot and updates the state of the game
+     *
+     * @param cell the target cell
+     * @return the outcome of the shot
+     */
+    private byte resolve(int cell) {
+        if (!geometry.contains(cell)) {
             countInvalidShots++;
-        else { // valid shot!
-            if (repeatedShot(pos))
-                countRepeatedShots++;
-            else {
-                shots.add(pos);
-                IShip s = fleet.shipAt(pos);
-                if (s != null) {
-                    s.shoot(pos);
-                    countHits++;
-                    if (!s.stillFloating()) {
-                        countSinks++;
-                        return s;
-                    }
-                }
-            }
+            recordMisfires(1, 0);
+            return INVALID;
+        }
+        if (shotCells.get(cell)) {
+            countRepeatedShots++;
+            recordMisfires(0, 1);
+            return REPEATED;
+        }
+
+        record(cell);
+        shotCells.set(cell);
+        if (shotCount == shotOrder.length)
+            shotOrder = Arrays.copyOf(shotOrder, Math.min(2 * shotCount, geometry.getCellCount()));
+        shotOrder[shotCount++] = cell;
+        lastSunk = null;
+        IShip s = fleet.shoot(cell);
+        if (s == null) {
+            hash ^= Zobrist.key(cell, false);
+            return MISS;
         }
-        return null;
+        countHits++;
+        hash ^= Zobrist.key(cell, true);
+        if (s.stillFloating())
+            return HIT;
+        countSinks++;
+        lastSunk = s;
+        return SUNK;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#sunkShipAt(int)
+     */
+    @Override
+    public IShip sunkShipAt(int cell) {
+        IShip s = geometry.contains(cell) && shotCells.get(cell) ? fleet.shipAt(cell) : null;
+        return s != null && !s.stillFloating() ? s : null;
     }
 
     /*
@@ -115,39 +246,193 @@ public class Game implements IGame {
      */
     @Override
     public int getRemainingShips() {
-        List<IShip> floatingShips = fleet.getFloatingShips();
-        return floatingShips.size();
+        return fleet.getFloatingCount();
     }
 
-    private boolean validShot(IPosition pos) {
-        return (pos.getRow() >= 0 && pos.getRow() <= Fleet.BOARD_SIZE && pos.getColumn() >= 0
-                && pos.getColumn() <= Fleet.BOARD_SIZE);
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getHash()
+     */
+    @Override
+    public long getHash() {
+        return hash;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#addShotListener(battleship.IShotListener)
+     */
+    @Override
+    public void addShotListener(IShotListener listener) {
+        assert listener != null;
+
+        shotListeners.add(listener);
     }
 
-    private boolean repeatedShot(IPosition pos) {
-        for (int i = 0; i < shots.size(); i++)
-            if (shots.get(i).equals(pos))
-                return true;
-        return false;
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#removeShotListener(battleship.IShotListener)
+     */
+    @Override
+    public void removeShotListener(IShotListener listener) {
+        shotListeners.remove(listener);
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#reset()
+     */
+    @Override
+    public void reset() {
+        fleet.reset();
+        shotCount = 0;
+        shotCells.clear();
+        countInvalidShots = 0;
+        countRepeatedShots = 0;
+        countHits = 0;
+        countSinks = 0;
+        lastSunk = null;
+        journalSize = 0;
+        sealed = 0;
+        hash = Zobrist.EMPTY;
+        for (int i = 0; i < shotListeners.size(); i++)
+            shotListeners.get(i).gameReset();
+    }
 
-    public void printBoard(List<IPosition> positions, Character marker) {
-        char[][] map = new char[Fleet.BOARD_SIZE][Fleet.BOARD_SIZE];
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#snapshot()
+     */
+    @Override
+    public int snapshot() {
+        sealed = journalSize;
+        return journalSize;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#restore(int)
+     */
+    @Override
+    public void restore(int snapshot) throws IllegalArgumentException {
+        if (snapshot < 0 || snapshot > journalSize)
+            throw new IllegalArgumentException("ERROR! snapshot " + snapshot + " is not in the past of this game");
+
+        while (journalSize > snapshot) {
+            long entry = journal[--journalSize];
+            if (entry < 0) {
+                countInvalidShots -= (int) (~entry >>> 32);
+                countRepeatedShots -= (int) ~entry;
+            } else
+                undo((int) entry);
+        }
+        sealed = Math.min(sealed, snapshot);
+    }
+
+    /**
+     * Takes back the last valid shot, which was fired at the given cell
+     */
+    private void undo(int cell) {
+        shotCount--;
+        shotCells.clear(cell);
+        IShip s = fleet.shipAt(cell);
+        hash ^= Zobrist.key(cell, s != null);
+        if (s != null) {
+            if (!s.stillFloating())
+                countSinks--;
+            fleet.unshoot(cell);
+            countHits--;
+        }
+    }
+
+    private void record(long entry) {
+        if (journalSize == journal.length)
+            journal = Arrays.copyOf(journal, 2 * journalSize + 1);
+        journal[journalSize++] = entry;
+    }
+
+    /**
+     * Journals invalid and repeated shots, in the count entry on top of the
+     * journal if it is above the seal
+     */
+    private void recordMisfires(int invalid, int repeated) {
+        long counts = (long) invalid << 32 | repeated;
+        if (journalSize > sealed && journal[journalSize - 1] < 0)
+            journal[journalSize - 1] = ~(~journal[journalSize - 1] + counts);
+        else
+            record(~counts);
+    }
 
-        for (int r = 0; r < Fleet.BOARD_SIZE; r++)
-            for (int c = 0; c < Fleet.BOARD_SIZE; c++)
-                map[r][c] = '.';
+    /**
+     * Counts invalid and repeated shots without firing them one by one, as one
+     * journal entry; the listeners are not told
+     *
+     * @param invalid  the number of invalid shots
+     * @param repeated the number of repeated shots, none unless a valid shot
+     *                 was fired
+     */
+    void addMisfires(int invalid, int repeated) {
+        assert invalid >= 0 && repeated >= 0 && (repeated == 0 || shotCount > 0);
+        assert invalid <= Integer.MAX_VALUE - countInvalidShots && repeated <= Integer.MAX_VALUE - countRepeatedShots;
 
-        for (IPosition pos : positions)
-            map[pos.getRow()][pos.getColumn()] = marker;
+        if (invalid == 0 && repeated == 0)
+            return;
+        countInvalidShots += invalid;
+        countRepeatedShots += repeated;
+        recordMisfires(invalid, repeated);
+    }
 
-        for (int row = 0; row < Fleet.BOARD_SIZE; row++) {
-            for (int col = 0; col < Fleet.BOARD_SIZE; col++)
-                System.out.print(map[row][col]);
-            System.out.println();
+    private boolean validShot(IPosition pos) {
+        return geometry.contains(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * A read-only view of the shots fired so far
+     */
+    private class ShotList extends AbstractList<IPosition> {
+        @Override
+        public IPosition get(int index) {
+            if (index < 0 || index >= shotCount)
+                throw new IndexOutOfBoundsException(index);
+            return geometry.position(shotOrder[index]);
         }
 
+        @Override
+        public int size() {
+            return shotCount;
+        }
+    }
+
+
+    public void printBoard(List<IPosition> positions, Character marker) {
+        printBoard(positions, marker, System.out);
+    }
+
+    /**
+     * Prints the board to a stream, marking the given positions
+     *
+     * @param positions the positions to mark
+     * @param marker    the mark
+     * @param out       the stream to print to
+     */
+    void printBoard(List<IPosition> positions, Character marker, PrintStream out) {
+        out.append(renderer().render(geometry, positions, marker));
+    }
+
+    /**
+     * @return the renderer of this game, which draws its boards into a buffer
+     * kept from one board to the next
+     */
+    private BoardRenderer renderer() {
+        if (renderer == null)
+            renderer = new BoardRenderer();
+        return renderer;
     }
 
 
@@ -155,7 +440,16 @@ public class Game implements IGame {
      * Prints the board showing valid shots that have been fired
      */
     public void printValidShots() {
-        printBoard(getShots(), 'X');
+        printValidShots(System.out);
+    }
+
+    /**
+     * Prints the board showing valid shots to a stream
+     *
+     * @param out the stream to print to
+     */
+    void printValidShots(PrintStream out) {
+        printBoard(getShots(), BoardRenderer.SHOT, out);
     }
 
 
@@ -163,12 +457,16 @@ public class Game implements IGame {
      * Prints the board showing the fleet
      */
     public void printFleet() {
-        List<IPosition> shipPositions = new ArrayList<IPosition>();
-
-        for (IShip s : fleet.getShips())
-            shipPositions.addAll(s.getPositions());
+        printFleet(System.out);
+    }
 
-        printBoard(shipPositions, '#');
+    /**
+     * Prints the board showing the fleet to a stream
+     *
+     * @param out the stream to print to
+     */
+    void printFleet(PrintStream out) {
+        out.append(renderer().renderFleet(fleet));
     }
 
 }
@@ -0,0 +1,186 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A compact binary form of fleets and games, read and written directly on a
+ * ByteBuffer. Counts and cells are written as unsigned varints, seven bits a
+ * byte, so small boards take one byte per cell.
+ * <p>
+ * A fleet is its rows, columns and fleet size, its number of ships and, per
+ * ship, one byte with the category index and the bearing ordinal followed by
+ * the anchor cell. A game is its fleet, the bitset of the cells fired at, and
+ * its hit, sink, invalid and repeated shot counts. A game on the standard
+ * board takes 43 bytes, as long as each count stays under 128.
+ * <p>
+ * The firing order is not kept: a decoded game has fired at its cells in
+ * increasing order, which leads to the same state, hash and counts. The hit
+ * and sink counts are checked against the decoded fleet; the invalid and
+ * repeated shot counts are restored as they are, in a single journal entry,
+ * and must leave the total number of shots within an int. Bytes that are cut
+ * short or do not encode a valid fleet or game raise IllegalArgumentException.
+ */
+public final class GameCodec {
+    private static final Compass[] BEARINGS = Compass.values();
+
+    private GameCodec() {
+    }
+
+    /**
+     * @param fleet the fleet to encode
+     * @param out   where to write it
+     * @throws IllegalArgumentException if a ship of the fleet has no known
+     *                                  category or bearing
+     */
+    public static void encode(IFleet fleet, ByteBuffer out) throws IllegalArgumentException {
+        assert fleet != null && out != null;
+
+        BoardGeometry geometry = fleet.getGeometry();
+        putVarint(out, geometry.getRows());
+        putVarint(out, geometry.getColumns());
+        putVarint(out, geometry.getFleetSize());
+        List<IShip> ships = fleet.getShips();
+        putVarint(out, ships.size());
+        for (IShip s : ships) {
+            int category = ShipShape.categoryIndex(s.getCategory());
+            if (category < 0 || s.getBearing() == null)
+                throw new IllegalArgumentException("ERROR! ship " + s + " cannot be encoded");
+            out.put((byte) (category << 3 | s.getBearing().ordinal()));
+            putVarint(out, geometry.cell(s.getPosition().getRow(), s.getPosition().getColumn()));
+        }
+    }
+
+    /**
+     * @param in where to read the fleet from
+     * @return the fleet
+     * @throws IllegalArgumentException if the bytes do not encode a valid fleet
+     */
+    public static Fleet decodeFleet(ByteBuffer in) throws IllegalArgumentException {
+        assert in != null;
+
+        try {
+            return readFleet(in);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("ERROR! encoded fleet is cut short", e);
+        }
+    }
+
+    private static Fleet readFleet(ByteBuffer in) {
+        BoardGeometry geometry = BoardGeometry.of(getVarint(in), getVarint(in), getVarint(in));
+        Fleet fleet = new Fleet(geometry);
+        for (int i = getVarint(in); i > 0; i--) {
+            int kind = in.get() & 0xFF;
+            int bearing = kind & 7;
+            int cell = getVarint(in);
+            IShip s = bearing >= BEARINGS.length || !geometry.contains(cell) ? null
+                    : Ship.buildShip(kind >>> 3, BEARINGS[bearing], geometry.position(cell));
+            if (s == null || !fleet.addShip(s))
+                throw new IllegalArgumentException("ERROR! encoded ship at cell " + cell + " cannot be placed");
+        }
+        return fleet;
+    }
+
+    /**
+     * @param game the game to encode
+     * @param out  where to write it
+     * @throws IllegalArgumentException if a ship of the fleet has no known
+     *                                  category or bearing
+     */
+    public static void encode(Game game, ByteBuffer out) throws IllegalArgumentException {
+        assert game != null && out != null;
+
+        encode(game.getFleet(), out);
+        BoardGeometry geometry = game.getGeometry();
+        int start = out.position();
+        int bytes = (geometry.getCellCount() + 7) >>> 3;
+        for (int i = 0; i < bytes; i++)
+            out.put((byte) 0);
+        for (IPosition p : game.getShots()) {
+            int cell = geometry.cell(p.getRow(), p.getColumn());
+            out.put(start + (cell >>> 3), (byte) (out.get(start + (cell >>> 3)) | 1 << (cell & 7)));
+        }
+        putVarint(out, game.getHits());
+        putVarint(out, game.getSunkShips());
+        putVarint(out, game.getInvalidShots());
+        putVarint(out, game.getRepeatedShots());
+    }
+
+    /**
+     * @param in where to read the game from
+     * @return the game, with its cells fired at in increasing order
+     * @throws IllegalArgumentException if the bytes do not encode a valid game
+     */
+    public static Game decodeGame(ByteBuffer in) throws IllegalArgumentException {
+        assert in != null;
+
+        try {
+            return readGame(in);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("ERROR! encoded game is cut short", e);
+        }
+    }
+
+    private static Game readGame(ByteBuffer in) {
+        Game game = new Game(readFleet(in));
+        int cells = game.getGeometry().getCellCount();
+        for (int base = 0; base < cells; base += 8) {
+            int bits = in.get() & 0xFF;
+            for (; bits != 0; bits &= bits - 1) {
+                int cell = base + Integer.numberOfTrailingZeros(bits);
+                if (cell >= cells)
+                    throw new IllegalArgumentException("ERROR! encoded shot off the board");
+                game.fire(cell);
+            }
+        }
+
+        int hits = getVarint(in);
+        int sinks = getVarint(in);
+        int invalid = getVarint(in);
+        int repeated = getVarint(in);
+        int shots = game.getShots().size();
+        if (hits != game.getHits() || sinks != game.getSunkShips())
+            throw new IllegalArgumentException("ERROR! encoded counts do not match the shots");
+        if (repeated > 0 && shots == 0)
+            throw new IllegalArgumentException("ERROR! encoded repeated shots without any shot");
+        if (invalid > Integer.MAX_VALUE - shots - repeated)
+            throw new IllegalArgumentException("ERROR! encoded misfire counts out of range");
+        game.addMisfires(invalid, repeated);
+        return game;
+    }
+
+    static void putVarint(ByteBuffer out, int value) {
+        assert value >= 0;
+
+        while (value >= 0x80) {
+            out.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static int varintSize(int value) {
+        assert value >= 0;
+
+        return Math.max(1, (38 - Integer.numberOfLeadingZeros(value)) / 7);
+    }
+
+    static int getVarint(ByteBuffer in) throws IllegalArgumentException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0)
+                    throw new IllegalArgumentException("ERROR! encoded number out of range");
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("ERROR! encoded number too long");
+    }
+
+}
@@ -9,15 +9,37 @@ public interface IFleet {
     Integer BOARD_SIZE = 10;
     Integer FLEET_SIZE = 10;
 
+    BoardGeometry getGeometry();
+
     List<IShip> getShips();
 
     boolean addShip(IShip s);
 
+    boolean canPlace(ShipShape shape, int row, int column);
+
     List<IShip> getShipsLike(String category);
 
     List<IShip> getFloatingShips();
 
     IShip shipAt(IPosition pos);
 
+    IShip shipAt(int cell);
+
+    IShip shoot(IPosition pos);
+
+    IShip shoot(int cell);
+
+    IShip unshoot(int cell);
+
+    int getFloatingCount();
+
+    int getFloatingCount(String category);
+
+    void addSinkListener(ISinkListener listener);
+
+    void reset();
+
+    void clear();
+
     void printStatus();
 }
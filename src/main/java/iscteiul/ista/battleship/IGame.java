@@ -6,8 +6,25 @@ package iscteiul.ista.battleship;
 import java.util.List;
 
 public interface IGame {
+    /**
+     * Outcomes of a shot, as reported by fire(int[], byte[])
+     */
+    byte MISS = 0;
+    byte HIT = 1;
+    byte SUNK = 2;
+    byte REPEATED = 3;
+    byte INVALID = 4;
+
+    BoardGeometry getGeometry();
+
     IShip fire(IPosition pos);
 
+    IShip fire(int cell);
+
+    void fire(int[] cells, byte[] results);
+
+    IShip sunkShipAt(int cell);
+
     List<IPosition> getShots();
 
     int getRepeatedShots();
@@ -20,6 +37,18 @@ public interface IGame {
 
     int getRemainingShips();
 
+    long getHash();
+
+    void addShotListener(IShotListener listener);
+
+    void removeShotListener(IShotListener listener);
+
+    void reset();
+
+    int snapshot();
+
+    void restore(int snapshot);
+
     void printValidShots();
 
     void printFleet();
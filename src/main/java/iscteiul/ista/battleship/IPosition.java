@@ -5,6 +5,9 @@ package iscteiul.ista.battleship;
 
 /**
  * @author fba
+ *
+ * Positions are equal when their coordinates are; implementations must hash
+ * them as 31 * row + column so that any two of them can share a hash table.
  */
 public interface IPosition {
     int getRow();
@@ -15,6 +18,13 @@ public interface IPosition {
 
     boolean isAdjacentTo(IPosition other);
 
+    /**
+     * The state operations below are supported by Positions, which keep the
+     * state themselves, and by the positions of a ship, which keep it in the
+     * ship. Cells carry no state and throw UnsupportedOperationException: ask
+     * IFleet.shipAt whether a cell is occupied and IShip.damageMask whether a
+     * cell of a ship was hit.
+     */
     void occupy();
 
     void shoot();
@@ -18,6 +18,10 @@ public interface IShip {
 
     boolean stillFloating();
 
+    int hitCount();
+
+    long damageMask();
+
     int getTopMostPos();
 
     int getBottomMostPos();
@@ -28,9 +32,17 @@ public interface IShip {
 
     boolean occupies(IPosition pos);
 
+    boolean occupies(int row, int column);
+
     boolean tooCloseTo(IShip other);
 
     boolean tooCloseTo(IPosition pos);
 
     void shoot(IPosition pos);
+
+    void shoot(int row, int column);
+
+    void repair();
+
+    void repair(int row, int column);
 }
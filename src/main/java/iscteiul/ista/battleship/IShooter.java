@@ -0,0 +1,18 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.SplittableRandom;
+
+/**
+ * A shooting strategy. A shooter is used by one thread at a time and is reset
+ * with newGame before each game, so it may keep and reuse its own buffers.
+ */
+public interface IShooter {
+    void newGame(BoardGeometry geometry, SplittableRandom random);
+
+    int nextShot();
+
+    void shotResult(int cell, boolean hit, IShip sunk);
+}
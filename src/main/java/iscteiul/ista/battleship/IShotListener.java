@@ -0,0 +1,23 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * Receives a notification whenever a shot is fired in a game, and when the
+ * game is reset to start a new match
+ */
+public interface IShotListener {
+    /**
+     * @param cell   the target cell, or -1 for a position off the board
+     * @param result the outcome, one of the IGame outcome codes
+     */
+    void shotFired(int cell, byte result);
+
+    /**
+     * Called after the game was reset; the shots that follow belong to a new
+     * match on the same fleet
+     */
+    default void gameReset() {
+    }
+}
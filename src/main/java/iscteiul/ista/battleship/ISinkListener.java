@@ -0,0 +1,11 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * Receives a notification whenever a ship of a fleet is sunk
+ */
+public interface ISinkListener {
+    void shipSunk(IShip ship);
+}
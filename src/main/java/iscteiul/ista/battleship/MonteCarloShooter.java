@@ -0,0 +1,305 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * An anytime Monte Carlo shooter. For every move it samples fleet layouts
+ * consistent with what it has observed: the ships still afloat, placed off the
+ * misses and off the surroundings of the sunk ships, covering every hit on a
+ * ship not yet sunk. It then fires at the unshot cell occupied in most samples,
+ * which is the shot most likely to hit.
+ * <p>
+ * Sampling stops at the move deadline, so the answer is always the best one
+ * found in the time given: the deadline is checked after every dead end of a
+ * draw, and part of the time of a move is kept for merging the counts. The
+ * samples are drawn in parallel, one task per worker of the pool. Each worker
+ * keeps its generator and counts from one move to the next and only tells the
+ * generator about the cells found to be water, and the ships sunk, since its
+ * last move. If no consistent layout turns up in time the shooter falls back
+ * to a DensityShooter that follows the same game.
+ */
+public class MonteCarloShooter implements IShooter {
+    /**
+     * The part of the time of a move kept for starting the workers and merging
+     * their counts, as a divisor of that time
+     */
+    private static final int MERGE_SHARE = 8;
+
+    private final int[] composition;
+    private final long moveNanos;
+    private final ForkJoinPool pool;
+    private final DensityShooter fallback;
+
+    private BoardGeometry geometry;
+    private SplittableRandom random;
+
+    private Bitboard shot;
+    private Bitboard blocked;
+    private Bitboard unsunk;
+    private int[] hits;
+    private int hitCount;
+    private int[] floating;
+    private int sinks;
+
+    /**
+     * The cells known to be water, in the order they were found, so that each
+     * worker only blocks the ones it has not seen yet
+     */
+    private int[] blockedCells;
+    private int blockedCount;
+
+    private Worker[] workers;
+    private int[] counts;
+
+    /**
+     * A shooter against the standard fleet, sampling on the common pool
+     *
+     * @param moveMillis the time allowed for each move, in milliseconds
+     */
+    public MonteCarloShooter(long moveMillis) {
+        this(FleetGenerator.STANDARD_FLEET, moveMillis, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param composition the number of ships per ShipShape.CATEGORIES entry
+     * @param moveMillis  the time allowed for each move, in milliseconds
+     * @param pool        the pool that draws the samples
+     */
+    public MonteCarloShooter(int[] composition, long moveMillis, ForkJoinPool pool) throws IllegalArgumentException {
+        assert composition != null && pool != null;
+        if (moveMillis <= 0)
+            throw new IllegalArgumentException("ERROR! the time per move must be positive");
+
+        fallback = new DensityShooter(composition);
+        this.composition = composition.clone();
+        this.moveNanos = moveMillis * 1_000_000L;
+        this.pool = pool;
+        floating = new int[composition.length];
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShooter#newGame(battleship.BoardGeometry, java.util.SplittableRandom)
+     */
+    @Override
+    public void newGame(BoardGeometry geometry, SplittableRandom random) {
+        if (geometry != this.geometry) {
+            this.geometry = geometry;
+            shot = new Bitboard(geometry.getCellCount());
+            blocked = new Bitboard(geometry.getCellCount());
+            unsunk = new Bitboard(geometry.getCellCount());
+            hits = new int[geometry.getCellCount()];
+            blockedCells = new int[geometry.getCellCount()];
+            counts = new int[geometry.getCellCount()];
+            workers = new Worker[pool.getParallelism()];
+            for (int i = 0; i < workers.length; i++)
+                workers[i] = new Worker();
+        }
+        this.random = random;
+        fallback.newGame(geometry, random);
+
+        shot.clear();
+        blocked.clear();
+        unsunk.clear();
+        hitCount = 0;
+        blockedCount = 0;
+        sinks = 0;
+        System.arraycopy(composition, 0, floating, 0, floating.length);
+        for (Worker worker : workers)
+            worker.reset();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShooter#nextShot()
+     */
+    @Override
+    public int nextShot() {
+        long deadline = System.nanoTime() + moveNanos - moveNanos / MERGE_SHARE;
+        sample(deadline);
+
+        int best = -1;
+        int ties = 0;
+        for (int cell = 0; cell < geometry.getCellCount(); cell++)
+            if (!shot.get(cell) && counts[cell] > 0) {
+                if (best < 0 || counts[cell] > counts[best]) {
+                    best = cell;
+                    ties = 1;
+                } else if (counts[cell] == counts[best] && random.nextInt(++ties) == 0)
+                    best = cell;
+            }
+        return best >= 0 ? best : fallback.nextShot();
+    }
+
+    /**
+     * Draws consistent layouts on every worker of the pool until the deadline,
+     * and counts, for each cell, the number of samples with a ship on it
+     */
+    private void sample(long deadline) {
+        int[] knownHits = Arrays.copyOf(hits, hitCount);
+        List<Sampler> samplers = new ArrayList<>(workers.length);
+        for (Worker worker : workers)
+            samplers.add(new Sampler(worker, knownHits, random.split(), deadline));
+        if (ForkJoinTask.getPool() == pool)
+            ForkJoinTask.invokeAll(samplers);
+        else
+            pool.submit(() -> ForkJoinTask.invokeAll(samplers)).join();
+
+        Arrays.fill(counts, 0);
+        for (Sampler sampler : samplers) {
+            int[] partial = sampler.join();
+            for (int cell = 0; cell < counts.length; cell++)
+                counts[cell] += partial[cell];
+        }
+    }
+
+    /**
+     * The state one worker keeps between moves: its generator, which knows
+     * the first applied cells of blockedCells and the ships still afloat after
+     * the first sunk sinks, and its counts
+     */
+    private final class Worker {
+        private final FleetGenerator generator;
+        private final Bitboard occupied;
+        private final int[] counts;
+        private int applied;
+        private int sunk;
+
+        Worker() {
+            generator = new FleetGenerator(geometry, composition);
+            occupied = new Bitboard(geometry.getCellCount());
+            counts = new int[geometry.getCellCount()];
+        }
+
+        void reset() {
+            if (applied > 0)
+                generator.setBlocked(null);
+            if (sunk > 0)
+                generator.setComposition(composition);
+            applied = 0;
+            sunk = 0;
+        }
+
+        /**
+         * Brings the generator up to date with the observations
+         */
+        void update() {
+            for (; applied < blockedCount; applied++)
+                generator.block(blockedCells[applied]);
+            if (sunk != sinks) {
+                generator.setComposition(floating);
+                sunk = sinks;
+            }
+        }
+    }
+
+    /**
+     * Draws samples on one worker. The observations it is given are only read,
+     * and do not change until every sampler has finished.
+     */
+    private class Sampler extends RecursiveTask<int[]> {
+        private final Worker worker;
+        private final int[] hitCells;
+        private final SplittableRandom random;
+        private final long deadline;
+
+        Sampler(Worker worker, int[] hitCells, SplittableRandom random, long deadline) {
+            this.worker = worker;
+            this.hitCells = hitCells;
+            this.random = random;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected int[] compute() {
+            worker.update();
+            FleetGenerator generator = worker.generator;
+            Bitboard occupied = worker.occupied;
+            int[] counts = worker.counts;
+            Arrays.fill(counts, 0);
+
+            try {
+                while (generator.next(random, deadline)) {
+                    occupied.clear();
+                    for (int i = 0; i < generator.getShipCount(); i++)
+                        for (int offset : generator.offsetsOf(i))
+                            occupied.set(generator.anchorOf(i) + offset);
+                    if (coversHits(occupied))
+                        for (int i = 0; i < generator.getShipCount(); i++)
+                            for (int offset : generator.offsetsOf(i))
+                                counts[generator.anchorOf(i) + offset]++;
+                    if (System.nanoTime() - deadline >= 0)
+                        break;
+                }
+            } catch (IllegalStateException e) {
+                // no layout fits what has been observed; leave it to the fallback
+            }
+            return counts;
+        }
+
+        private boolean coversHits(Bitboard occupied) {
+            for (int cell : hitCells)
+                if (!occupied.get(cell))
+                    return false;
+            return true;
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShooter#shotResult(int, boolean, battleship.IShip)
+     */
+    @Override
+    public void shotResult(int cell, boolean hit, IShip sunk) {
+        fallback.shotResult(cell, hit, sunk);
+        if (!geometry.contains(cell) || shot.get(cell))
+            return;
+        shot.set(cell);
+
+        if (!hit)
+            block(cell);
+        else if (sunk == null) {
+            unsunk.set(cell);
+            hits[hitCount++] = cell;
+        } else {
+            int category = ShipShape.categoryIndex(sunk.getCategory());
+            if (category >= 0 && floating[category] > 0) {
+                floating[category]--;
+                sinks++;
+            }
+            for (IPosition p : sunk.getPositions()) {
+                if (geometry.contains(p.getRow(), p.getColumn()))
+                    unsunk.clear(geometry.cell(p.getRow(), p.getColumn()));
+                for (int r = p.getRow() - 1; r <= p.getRow() + 1; r++)
+                    for (int c = p.getColumn() - 1; c <= p.getColumn() + 1; c++)
+                        if (geometry.contains(r, c))
+                            block(geometry.cell(r, c));
+            }
+            int kept = 0;
+            for (int i = 0; i < hitCount; i++)
+                if (unsunk.get(hits[i]))
+                    hits[kept++] = hits[i];
+            hitCount = kept;
+        }
+    }
+
+    private void block(int cell) {
+        if (!blocked.get(cell)) {
+            blocked.set(cell);
+            blockedCells[blockedCount++] = cell;
+        }
+    }
+
+}
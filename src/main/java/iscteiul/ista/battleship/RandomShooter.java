@@ -0,0 +1,57 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.SplittableRandom;
+
+/**
+ * Fires at the cells of the board in a uniformly random order, never
+ * repeating a shot
+ */
+public class RandomShooter implements IShooter {
+    private SplittableRandom random;
+    private int[] cells;
+    private int remaining;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShooter#newGame(battleship.BoardGeometry, java.util.SplittableRandom)
+     */
+    @Override
+    public void newGame(BoardGeometry geometry, SplittableRandom random) {
+        this.random = random;
+        if (cells == null || cells.length != geometry.getCellCount()) {
+            cells = new int[geometry.getCellCount()];
+            for (int i = 0; i < cells.length; i++)
+                cells[i] = i;
+        }
+        remaining = cells.length;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShooter#nextShot()
+     */
+    @Override
+    public int nextShot() {
+        int i = random.nextInt(remaining);
+        int cell = cells[i];
+        cells[i] = cells[--remaining];
+        cells[remaining] = cell;
+        return cell;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShooter#shotResult(int, boolean, battleship.IShip)
+     */
+    @Override
+    public void shotResult(int cell, boolean hit, IShip sunk) {
+        // a random shooter learns nothing from the outcome
+    }
+
+}
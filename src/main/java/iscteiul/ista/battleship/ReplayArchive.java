@@ -0,0 +1,270 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Random access to the games of a ReplayLog. The log is memory-mapped, and a
+ * dense index holds, in one long per game, the record where the game starts
+ * and its number of SHIP records; one more entry marks the end of the log.
+ * Reaching game N is one index lookup, its end is the start of game N+1, and,
+ * as records are fixed width, its K-th shot is found by arithmetic: no record
+ * is scanned. An index entry keeps the record number in its upper 40 bits and
+ * the ship count in its lower 24, so a log may hold up to 2^39 records.
+ * <p>
+ * A game is replayed by a Replayer straight from a slice of the mapping; no
+ * record is copied. The log is mapped in segments of up to a gigabyte, so it
+ * may outgrow a single buffer; the rare game that crosses two segments is
+ * mapped on its own.
+ * <p>
+ * The index can be kept in a file next to the log. It is loaded when its
+ * header matches the log as it is now: its length and a CRC32 of its first
+ * and last FINGERPRINT_BYTES. It is rebuilt and saved otherwise, and a seek
+ * that does not land on a GAME record is reported as a stale index.
+ */
+public class ReplayArchive implements Closeable {
+    /**
+     * The number of bytes at each end of the log that the index file
+     * fingerprints
+     */
+    public static final int FINGERPRINT_BYTES = 1 << 16;
+
+    private static final long SEGMENT_SIZE = 1L << 30;
+    private static final int INDEX_MAGIC = 0x52504944;
+    private static final int INDEX_HEADER = 28;
+    private static final int RECORD = ReplayLog.RECORD_SIZE;
+    private static final int SHIP_BITS = 24;
+    private static final long MAX_RECORDS = 1L << (Long.SIZE - 1 - SHIP_BITS);
+
+    private final FileChannel channel;
+    private final long length;
+    private final long segmentSize;
+    private final MappedByteBuffer[] segments;
+
+    private long[] index;
+    private int gameCount;
+
+    /**
+     * @param log the log to read, indexed in memory
+     * @throws IOException if the log cannot be mapped
+     */
+    public ReplayArchive(Path log) throws IOException {
+        this(log, null);
+    }
+
+    /**
+     * @param log       the log to read
+     * @param indexFile where the index is loaded from and saved to, or null
+     *                  to keep it in memory only
+     * @throws IOException if the log cannot be mapped or the index cannot be
+     *                     saved
+     */
+    public ReplayArchive(Path log, Path indexFile) throws IOException {
+        this(log, indexFile, SEGMENT_SIZE);
+    }
+
+    ReplayArchive(Path log, Path indexFile, long segmentSize) throws IOException {
+        assert log != null && segmentSize > 0 && segmentSize % RECORD == 0;
+
+        this.segmentSize = segmentSize;
+        channel = FileChannel.open(log, StandardOpenOption.READ);
+        length = channel.size() / RECORD * RECORD;
+        if (length / RECORD >= MAX_RECORDS) {
+            channel.close();
+            throw new IOException("ERROR! the log " + log + " has too many records to be indexed");
+        }
+        segments = new MappedByteBuffer[(int) ((length + segmentSize - 1) / segmentSize)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = i * segmentSize;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, length - start));
+        }
+
+        if (indexFile == null || !loadIndex(indexFile)) {
+            buildIndex();
+            if (indexFile != null)
+                saveIndex(indexFile);
+        }
+    }
+
+    /**
+     * @return the byte at an offset of the log; at the start of a record,
+     * its type
+     */
+    private void buildIndex() throws IOException {
+        index = new long[16];
+        int games = 0;
+        boolean header = false;
+        for (long offset = 0; offset < length; offset += RECORD) {
+            byte type = byteAt(offset);
+            if (type == ReplayLog.GAME) {
+                if (games == Integer.MAX_VALUE - 1)
+                    throw new IOException("ERROR! the log has too many games to be indexed");
+                if (games + 1 == index.length)
+                    index = Arrays.copyOf(index, (int) Math.min(2L * index.length, Integer.MAX_VALUE));
+                index[games++] = offset / RECORD << SHIP_BITS;
+                header = true;
+            } else if (type == ReplayLog.SHIP && header)
+                index[games - 1]++;
+            else
+                header = false;
+        }
+        index[games] = length / RECORD << SHIP_BITS;
+        index = Arrays.copyOf(index, games + 1);
+        gameCount = games;
+    }
+
+    /**
+     * @return a CRC32 of the first and last FINGERPRINT_BYTES of the log
+     */
+    private long fingerprint() {
+        CRC32 crc = new CRC32();
+        long head = Math.min(length, FINGERPRINT_BYTES);
+        for (long offset = 0; offset < head; offset++)
+            crc.update(byteAt(offset));
+        for (long offset = Math.max(head, length - FINGERPRINT_BYTES); offset < length; offset++)
+            crc.update(byteAt(offset));
+        return crc.getValue();
+    }
+
+    private byte byteAt(long offset) {
+        return segments[(int) (offset / segmentSize)].get((int) (offset % segmentSize));
+    }
+
+    /**
+     * @return true if the file holds an index built for this log
+     */
+    private boolean loadIndex(Path indexFile) throws IOException {
+        if (!Files.isRegularFile(indexFile))
+            return false;
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        if (in.remaining() < INDEX_HEADER || in.getInt() != INDEX_MAGIC || in.getLong() != length
+                || in.getLong() != fingerprint())
+            return false;
+        long games = in.getLong();
+        if (games < 0 || games >= Integer.MAX_VALUE || in.remaining() != 8L * (games + 1))
+            return false;
+
+        long[] entries = new long[(int) games + 1];
+        in.asLongBuffer().get(entries);
+        if (entries[(int) games] != length / RECORD << SHIP_BITS)
+            return false;
+        index = entries;
+        gameCount = (int) games;
+        return true;
+    }
+
+    private void saveIndex(Path indexFile) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(INDEX_HEADER + 8 * index.length);
+        out.putInt(INDEX_MAGIC).putLong(length).putLong(fingerprint()).putLong(gameCount);
+        out.asLongBuffer().put(index);
+        Files.write(indexFile, out.array());
+    }
+
+    /**
+     * @return the number of games in the log
+     */
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * @param game the number of a game, from 0
+     * @return its index entry
+     */
+    private long entry(long game) {
+        if (game < 0 || game >= gameCount)
+            throw new IndexOutOfBoundsException("ERROR! game " + game + " is not in the archive");
+
+        long entry = index[(int) game];
+        if (byteAt(start(entry)) != ReplayLog.GAME)
+            throw new IllegalStateException("ERROR! the index does not match the log at game " + game);
+        return entry;
+    }
+
+    /**
+     * @return the offset of the first record of the game of an index entry
+     */
+    private static long start(long entry) {
+        return (entry >>> SHIP_BITS) * RECORD;
+    }
+
+    /**
+     * @param game the number of a game, from 0
+     * @return the records of the game, read-only and in place
+     * @throws IllegalStateException if the index no longer matches the log
+     */
+    public ByteBuffer records(long game) throws IOException {
+        long start = start(entry(game));
+        return slice(start, start(index[(int) game + 1]));
+    }
+
+    /**
+     * @param game  the number of a game, from 0
+     * @param shots the number of shots to keep
+     * @return the records of the game up to its given shot, read-only and in
+     * place
+     * @throws IllegalStateException if the index no longer matches the log
+     */
+    public ByteBuffer records(long game, int shots) throws IOException {
+        assert shots >= 0;
+
+        long entry = entry(game);
+        long start = start(entry);
+        long end = start(index[(int) game + 1]);
+        long firstShot = start + (1 + (entry & (1L << SHIP_BITS) - 1)) * RECORD;
+        return slice(start, Math.min(end, firstShot + (long) shots * RECORD));
+    }
+
+    private ByteBuffer slice(long start, long end) throws IOException {
+        int segment = (int) (start / segmentSize);
+        if (segment != (end - 1) / segmentSize)
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start).asReadOnlyBuffer();
+
+        int from = (int) (start % segmentSize);
+        return segments[segment].asReadOnlyBuffer().position(from).limit(from + (int) (end - start)).slice();
+    }
+
+    /**
+     * @param game the number of a game, from 0
+     * @return the game rebuilt from the log, with all its shots fired
+     * @throws IllegalStateException if the records do not describe a game that
+     *                               can be played as logged
+     */
+    public Game replay(long game) throws IOException {
+        return replay(records(game));
+    }
+
+    /**
+     * @param game  the number of a game, from 0
+     * @param shots the number of shots to fire
+     * @return the game rebuilt from the log, as it was after its given shot
+     * @throws IllegalStateException if the records do not describe a game that
+     *                               can be played as logged
+     */
+    public Game replay(long game, int shots) throws IOException {
+        return replay(records(game, shots));
+    }
+
+    private static Game replay(ByteBuffer records) {
+        Replayer replayer = new Replayer(records);
+        replayer.nextGame();
+        return replayer.getGame();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
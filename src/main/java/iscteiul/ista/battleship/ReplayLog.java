@@ -0,0 +1,253 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only binary log of games, from which a Replayer rebuilds them.
+ * <p>
+ * Every record is RECORD_SIZE bytes long, in big-endian order, and starts with
+ * its type:
+ * <ul>
+ * <li>GAME: pad byte, rows, columns and fleet size as unsigned shorts; opens
+ * a game</li>
+ * <li>SHIP: category index, bearing ordinal, pad byte, anchor row and column as
+ * unsigned shorts; one per ship of the game's fleet, before its shots</li>
+ * <li>SHOT: outcome code, two pad bytes, target cell as an int, or -1 for a
+ * position off the board; one per shot, in firing order</li>
+ * </ul>
+ * So the rows, columns and fleet size of a logged game are at most
+ * MAX_DIMENSION.
+ * <p>
+ * A game that is reset is logged again from its GAME record, so that each
+ * match replays as a game of its own.
+ * <p>
+ * Records are gathered in a buffer and committed in groups: the buffer is
+ * written to the file channel and forced to the disk in a single call, so the
+ * cost of reaching the disk is shared by the whole group. A group is committed
+ * when the buffer is full, or when a record arrives more than a commit delay
+ * after the first record of the group, COMMIT_DELAY_MILLIS by default. Records
+ * gathered in a session that then goes quiet stay in memory until commit or
+ * close is called. A crash loses at most the records of the group being
+ * gathered, and may leave the last record written cut short; such a record is
+ * cut off when the log is opened again, so that the records appended next stay
+ * aligned.
+ */
+public class ReplayLog implements IShotListener, Closeable {
+    public static final int RECORD_SIZE = 8;
+
+    /**
+     * The largest number of rows, columns or fleet size a record can hold
+     */
+    public static final int MAX_DIMENSION = 0xFFFF;
+
+    static final byte GAME = 1;
+    static final byte SHIP = 2;
+    static final byte SHOT = 3;
+
+    /**
+     * The number of records committed together by default
+     */
+    public static final int GROUP_RECORDS = 512;
+
+    /**
+     * How long the first record of a group may wait by default for the group
+     * to be committed, as long as other records keep arriving
+     */
+    public static final long COMMIT_DELAY_MILLIS = 1000;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final long commitNanos;
+
+    /**
+     * The game whose shots are being logged, and its fleet
+     */
+    private IGame current;
+    private IFleet currentFleet;
+
+    /**
+     * When the first record of the group being gathered arrived, as a
+     * System.nanoTime
+     */
+    private long groupStart;
+
+    /**
+     * @param file the log, created if it does not exist and appended to if it
+     *             does
+     * @throws IOException if the file cannot be opened
+     */
+    public ReplayLog(Path file) throws IOException {
+        this(file, GROUP_RECORDS);
+    }
+
+    /**
+     * @param file         the log, created if it does not exist and appended to
+     *                     if it does
+     * @param groupRecords the number of records committed together
+     * @throws IOException if the file cannot be opened
+     */
+    public ReplayLog(Path file, int groupRecords) throws IOException, IllegalArgumentException {
+        this(file, groupRecords, COMMIT_DELAY_MILLIS);
+    }
+
+    /**
+     * @param file              the log, created if it does not exist and
+     *                          appended to if it does
+     * @param groupRecords      the number of records committed together
+     * @param commitDelayMillis how long the first record of a group may wait
+     * @throws IOException if the file cannot be opened
+     */
+    ReplayLog(Path file, int groupRecords, long commitDelayMillis) throws IOException, IllegalArgumentException {
+        assert file != null && commitDelayMillis >= 0;
+        if (groupRecords <= 0)
+            throw new IllegalArgumentException("ERROR! a commit group needs at least one record");
+
+        commitNanos = commitDelayMillis * 1_000_000L;
+        buffer = ByteBuffer.allocateDirect(groupRecords * RECORD_SIZE);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        try {
+            long size = channel.size();
+            if (size % RECORD_SIZE != 0)
+                channel.truncate(size - size % RECORD_SIZE);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Logs the start of a game and the placement of its fleet, and every shot
+     * fired in the game from now on, until another game is recorded or the log
+     * is closed. Each reset of the game starts a new game in the log. Shots
+     * taken back by IGame.restore are not logged, so a recorded game should not
+     * be restored.
+     *
+     * @param fleet the fleet of the game
+     * @param game  the game
+     * @throws IllegalArgumentException if the board or the fleet size is larger
+     *                                  than MAX_DIMENSION, or a ship of the
+     *                                  fleet has no known category or bearing
+     */
+    public void record(IFleet fleet, IGame game) throws IllegalArgumentException {
+        assert fleet != null && game != null;
+
+        BoardGeometry geometry = fleet.getGeometry();
+        if (geometry.getRows() > MAX_DIMENSION || geometry.getColumns() > MAX_DIMENSION
+                || geometry.getFleetSize() > MAX_DIMENSION)
+            throw new IllegalArgumentException("ERROR! board " + geometry + " is too large to be logged");
+        for (IShip s : fleet.getShips())
+            if (ShipShape.categoryIndex(s.getCategory()) < 0 || s.getBearing() == null)
+                throw new IllegalArgumentException("ERROR! ship " + s + " cannot be logged");
+
+        if (current != null)
+            current.removeShotListener(this);
+        current = game;
+        currentFleet = fleet;
+        writeGame();
+        game.addShotListener(this);
+    }
+
+    /**
+     * Writes the GAME and SHIP records of the game being logged
+     */
+    private void writeGame() {
+        BoardGeometry geometry = currentFleet.getGeometry();
+        gather();
+        buffer.put(GAME).put((byte) 0).putChar((char) geometry.getRows())
+                .putChar((char) geometry.getColumns()).putChar((char) geometry.getFleetSize());
+        commitIfFull();
+        for (IShip s : currentFleet.getShips()) {
+            gather();
+            buffer.put(SHIP).put((byte) ShipShape.categoryIndex(s.getCategory())).put((byte) s.getBearing().ordinal()).put((byte) 0)
+                    .putChar((char) s.getPosition().getRow()).putChar((char) s.getPosition().getColumn());
+            commitIfFull();
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShotListener#shotFired(int, byte)
+     */
+    @Override
+    public void shotFired(int cell, byte result) {
+        gather();
+        buffer.put(SHOT).put(result).putShort((short) 0).putInt(cell);
+        commitIfFull();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShotListener#gameReset()
+     */
+    @Override
+    public void gameReset() {
+        writeGame();
+    }
+
+    /**
+     * Commits the group being gathered if its first record has waited too long,
+     * or notes the time if the record about to be put starts a group
+     */
+    private void gather() {
+        if (buffer.position() == 0)
+            groupStart = System.nanoTime();
+        else if (System.nanoTime() - groupStart > commitNanos) {
+            commit();
+            groupStart = System.nanoTime();
+        }
+    }
+
+    private void commitIfFull() {
+        if (!buffer.hasRemaining())
+            commit();
+    }
+
+    /**
+     * Writes the records gathered so far and forces them to the disk
+     *
+     * @throws UncheckedIOException if the log cannot be written
+     */
+    public void commit() {
+        if (buffer.position() == 0)
+            return;
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Commits the records gathered so far and closes the log
+     */
+    @Override
+    public void close() throws IOException {
+        if (current != null)
+            current.removeShotListener(this);
+        current = null;
+        currentFleet = null;
+        try {
+            commit();
+        } finally {
+            channel.close();
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Rebuilds the games of a ReplayLog one after the other. For each game it
+ * places the logged fleet, fires the logged shots in order and checks that
+ * every shot has the logged outcome.
+ * <p>
+ * The log is read through one large buffer, refilled by bulk channel reads,
+ * and the records are decoded in place, so reading keeps up with the disk. A
+ * record cut short at the end of the log, as left by a crash in the middle of
+ * a commit, is ignored.
+ */
+public class Replayer implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final Compass[] BEARINGS = Compass.values();
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    private BoardGeometry geometry;
+    private Fleet fleet;
+    private Game game;
+    private int gameCount;
+
+    private final int[] cells = new int[1];
+    private final byte[] results = new byte[1];
+
+    /**
+     * @param file the log to replay
+     * @throws IOException if the file cannot be opened
+     */
+    public Replayer(Path file) throws IOException {
+        assert file != null;
+
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.limit(0);
+    }
+
+    /**
+     * Replays records already in memory, from the position of the buffer to its
+     * limit. The buffer is read in place and its position is left untouched.
+     *
+     * @param records the records to replay
+     */
+    public Replayer(ByteBuffer records) {
+        assert records != null;
+
+        channel = null;
+        buffer = records.duplicate();
+    }
+
+    /**
+     * Rebuilds the next game of the log
+     *
+     * @return false if the log has no more games
+     * @throws IllegalStateException if the records do not describe a game that
+     *                               can be played as logged
+     */
+    public boolean nextGame() throws IllegalStateException {
+        if (!available())
+            return false;
+        if (buffer.get() != ReplayLog.GAME)
+            throw new IllegalStateException("ERROR! the log does not open a game at this point");
+        buffer.get();
+        prepare(buffer.getChar(), buffer.getChar(), buffer.getChar());
+
+        fleet = new Fleet(geometry);
+        while (available() && buffer.get(buffer.position()) == ReplayLog.SHIP) {
+            buffer.get();
+            int category = buffer.get();
+            int bearing = buffer.get();
+            buffer.get();
+            int row = buffer.getChar();
+            int column = buffer.getChar();
+            IShip s = bearing < 0 || bearing >= BEARINGS.length ? null
+                    : Ship.buildShip(category, BEARINGS[bearing], Cell.of(row, column));
+            if (s == null || !fleet.addShip(s))
+                throw new IllegalStateException("ERROR! the ship logged at " + row + " " + column + " cannot be placed");
+        }
+
+        game = new Game(fleet);
+        while (available() && buffer.get(buffer.position()) == ReplayLog.SHOT) {
+            buffer.get();
+            byte logged = buffer.get();
+            buffer.getShort();
+            cells[0] = buffer.getInt();
+            game.fire(cells, results);
+            if (results[0] != logged)
+                throw new IllegalStateException("ERROR! the shot logged at cell " + cells[0] + " has another outcome");
+        }
+        gameCount++;
+        return true;
+    }
+
+    /**
+     * Reuses the geometry of the previous game when the board is the same
+     */
+    private void prepare(int rows, int columns, int fleetSize) {
+        if (geometry != null && geometry.getRows() == rows && geometry.getColumns() == columns
+                && geometry.getFleetSize() == fleetSize)
+            return;
+        geometry = BoardGeometry.of(rows, columns, fleetSize);
+    }
+
+    /**
+     * @return true if a whole record is ready in the buffer
+     */
+    private boolean available() {
+        if (buffer.remaining() >= ReplayLog.RECORD_SIZE)
+            return true;
+        if (channel == null)
+            return false;
+
+        buffer.compact();
+        try {
+            int read;
+            do
+                read = channel.read(buffer);
+            while (read >= 0 && buffer.hasRemaining());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.flip();
+        }
+        return buffer.remaining() >= ReplayLog.RECORD_SIZE;
+    }
+
+    /**
+     * @return the fleet of the game last rebuilt
+     */
+    public Fleet getFleet() {
+        return fleet;
+    }
+
+    /**
+     * @return the game last rebuilt, with every logged shot fired
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * @return the number of games rebuilt so far
+     */
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null)
+            channel.close();
+    }
+
+}
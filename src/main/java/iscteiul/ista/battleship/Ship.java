@@ -15,13 +15,18 @@ public abstract class Ship implements IShip {
     private static final String CARAVELA = "caravela";
     private static final String BARCA = "barca";
 
+    /**
+     * Ship kinds indexed as ShipShape.CATEGORIES
+     */
+    static final String[] KINDS = {BARCA, CARAVELA, NAU, FRAGATA, GALEAO};
+
     /**
      * @param shipKind
      * @param bearing
      * @param pos
      * @return
      */
-    static Ship buildShip(String shipKind, Compass bearing, Position pos) {
+    static Ship buildShip(String shipKind, Compass bearing, IPosition pos) {
         Ship s;
         switch (shipKind) {
             case BARCA:
@@ -45,12 +50,44 @@ public abstract class Ship implements IShip {
         return s;
     }
 
+    /**
+     * @param category index of the ship category in ShipShape.CATEGORIES
+     * @param bearing
+     * @param pos
+     * @return the ship, or null if the category is unknown
+     */
+    static Ship buildShip(int category, Compass bearing, IPosition pos) {
+        return (category < 0 || category >= KINDS.length) ? null : buildShip(KINDS[category], bearing, pos);
+    }
+
 
     private String category;
     private Compass bearing;
     private IPosition pos;
     protected List<IPosition> positions;
 
+    /**
+     * Bit i is set when the i-th position of the ship has been hit
+     */
+    private long hitMask;
+    private int hitCount;
+
+    /**
+     * Bit i is set when the i-th position of the ship was marked occupied
+     * through IPosition.occupy
+     */
+    private long occupiedMask;
+
+    /**
+     * Bounding box of the ship, valid while extentSize matches the number of
+     * positions it was computed from
+     */
+    private int extentSize = -1;
+    private int top;
+    private int bottom;
+    private int left;
+    private int right;
+
 
     /**
      * @param category
@@ -67,6 +104,26 @@ public abstract class Ship implements IShip {
         positions = new ArrayList<>();
     }
 
+    /**
+     * Fills the positions of the ship by translating a shape template to the
+     * ship's anchor position. The positions are views of the ship: their hit
+     * and occupied state is the ship's own.
+     *
+     * @param shape the shape of the ship
+     */
+    protected void place(ShipShape shape) {
+        int row = pos.getRow();
+        int column = pos.getColumn();
+        for (int i = 0; i < shape.getSize(); i++)
+            positions.add(new Part(row + shape.rowOffset(i), column + shape.columnOffset(i)));
+
+        top = row + shape.getTop();
+        bottom = row + shape.getBottom();
+        left = column + shape.getLeft();
+        right = column + shape.getRight();
+        extentSize = positions.size();
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -111,10 +168,27 @@ public abstract class Ship implements IShip {
      */
     @Override
     public boolean stillFloating() {
-        for (int i = 0; i < getSize(); i++)
-            if (!getPositions().get(i).isHit())
-                return true;
-        return false;
+        return hitCount < getSize();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShip#hitCount()
+     */
+    @Override
+    public int hitCount() {
+        return hitCount;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShip#damageMask()
+     */
+    @Override
+    public long damageMask() {
+        return hitMask;
     }
 
     /*
@@ -124,10 +198,8 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getTopMostPos() {
-        int top = getPositions().get(0).getRow();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getRow() < top)
-                top = getPositions().get(i).getRow();
+        if (extentSize != positions.size())
+            computeExtent();
         return top;
     }
 
@@ -138,10 +210,8 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getBottomMostPos() {
-        int bottom = getPositions().get(0).getRow();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getRow() > bottom)
-                bottom = getPositions().get(i).getRow();
+        if (extentSize != positions.size())
+            computeExtent();
         return bottom;
     }
 
@@ -152,10 +222,8 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getLeftMostPos() {
-        int left = getPositions().get(0).getColumn();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getColumn() < left)
-                left = getPositions().get(i).getColumn();
+        if (extentSize != positions.size())
+            computeExtent();
         return left;
     }
 
@@ -166,13 +234,29 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getRightMostPos() {
-        int right = getPositions().get(0).getColumn();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getColumn() > right)
-                right = getPositions().get(i).getColumn();
+        if (extentSize != positions.size())
+            computeExtent();
         return right;
     }
 
+    /**
+     * Computes the bounding box once the positions of the ship are known. The
+     * shape of a ship does not change after construction, so this runs once.
+     */
+    private void computeExtent() {
+        IPosition first = positions.get(0);
+        top = bottom = first.getRow();
+        left = right = first.getColumn();
+        for (int i = 1; i < positions.size(); i++) {
+            IPosition p = positions.get(i);
+            top = Math.min(top, p.getRow());
+            bottom = Math.max(bottom, p.getRow());
+            left = Math.min(left, p.getColumn());
+            right = Math.max(right, p.getColumn());
+        }
+        extentSize = positions.size();
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -188,6 +272,21 @@ public abstract class Ship implements IShip {
         return false;
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShip#occupies(int, int)
+     */
+    @Override
+    public boolean occupies(int row, int column) {
+        for (int i = 0; i < getSize(); i++) {
+            IPosition position = getPositions().get(i);
+            if (position.getRow() == row && position.getColumn() == column)
+                return true;
+        }
+        return false;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -228,9 +327,51 @@ public abstract class Ship implements IShip {
     public void shoot(IPosition pos) {
         assert pos != null;
 
-        for (IPosition position : getPositions()) {
-            if (position.equals(pos))
-                position.shoot();
+        shoot(pos.getRow(), pos.getColumn());
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShip#shoot(int, int)
+     */
+    @Override
+    public void shoot(int row, int column) {
+        assert getPositions().size() <= Long.SIZE;
+
+        for (int i = 0; i < getPositions().size(); i++) {
+            IPosition position = getPositions().get(i);
+            if (position.getRow() == row && position.getColumn() == column && (hitMask & (1L << i)) == 0) {
+                hitMask |= 1L << i;
+                hitCount++;
+            }
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShip#repair()
+     */
+    @Override
+    public void repair() {
+        hitMask = 0;
+        hitCount = 0;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IShip#repair(int, int)
+     */
+    @Override
+    public void repair(int row, int column) {
+        for (int i = 0; i < getPositions().size(); i++) {
+            IPosition position = getPositions().get(i);
+            if (position.getRow() == row && position.getColumn() == column && (hitMask & (1L << i)) != 0) {
+                hitMask &= ~(1L << i);
+                hitCount--;
+            }
         }
     }
 
@@ -240,4 +381,88 @@ public abstract class Ship implements IShip {
         return "[" + category + " " + bearing + " " + pos + "]";
     }
 
+    /**
+     * A position of this ship. Its coordinates are immutable; whether it was
+     * hit or marked occupied is read from and written to the ship, so that
+     * IPosition.isHit on a position of the ship agrees with stillFloating,
+     * hitCount and damageMask.
+     */
+    private final class Part implements IPosition {
+        private final int row;
+        private final int column;
+
+        Part(int row, int column) {
+            this.row = row;
+            this.column = column;
+        }
+
+        /**
+         * @return the bit of this position in the masks of the ship, or 0 if it
+         * is no longer one of its positions
+         */
+        private long bit() {
+            for (int i = 0; i < positions.size() && i < Long.SIZE; i++)
+                if (positions.get(i) == this)
+                    return 1L << i;
+            return 0;
+        }
+
+        @Override
+        public int getRow() {
+            return row;
+        }
+
+        @Override
+        public int getColumn() {
+            return column;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * row + column;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other)
+                return true;
+            return other instanceof IPosition && row == ((IPosition) other).getRow()
+                    && column == ((IPosition) other).getColumn();
+        }
+
+        @Override
+        public boolean isAdjacentTo(IPosition other) {
+            return Math.abs(row - other.getRow()) <= 1 && Math.abs(column - other.getColumn()) <= 1;
+        }
+
+        @Override
+        public void occupy() {
+            occupiedMask |= bit();
+        }
+
+        @Override
+        public void shoot() {
+            long bit = bit();
+            if ((hitMask & bit) == 0 && bit != 0) {
+                hitMask |= bit;
+                hitCount++;
+            }
+        }
+
+        @Override
+        public boolean isOccupied() {
+            return (occupiedMask & bit()) != 0;
+        }
+
+        @Override
+        public boolean isHit() {
+            return (hitMask & bit()) != 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Linha = " + row + " Coluna = " + column;
+        }
+    }
+
 }
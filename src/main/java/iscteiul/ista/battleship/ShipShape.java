@@ -0,0 +1,208 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The cells covered by a ship of a given category and bearing, as row and
+ * column offsets from the ship's anchor position, listed in the order the ship
+ * stores its positions. Shapes are precomputed once for every (category,
+ * bearing) pair, so building a ship is a translation of its template and a
+ * placement can be tested against a board without building a ship at all.
+ */
+public final class ShipShape {
+    /**
+     * The ship categories, ordered by size
+     */
+    public static final String[] CATEGORIES = {"Barca", "Caravela", "Nau", "Fragata", "Galeao"};
+
+    private static final Map<String, ShipShape[]> SHAPES = new HashMap<>();
+
+    static {
+        for (String category : CATEGORIES)
+            SHAPES.put(category, new ShipShape[Compass.values().length]);
+
+        for (Compass bearing : Compass.values())
+            define("Barca", bearing, new int[]{0}, new int[]{0});
+
+        int[] zeros = new int[5];
+        int[] steps = {0, 1, 2, 3, 4};
+        for (int size = 2; size <= 4; size++) {
+            String category = CATEGORIES[size - 1];
+            int[] along = Arrays.copyOf(steps, size);
+            int[] across = Arrays.copyOf(zeros, size);
+            define(category, Compass.NORTH, along, across);
+            define(category, Compass.SOUTH, along, across);
+            define(category, Compass.EAST, across, along);
+            define(category, Compass.WEST, across, along);
+        }
+
+        define("Galeao", Compass.NORTH, new int[]{0, 0, 0, 1, 2}, new int[]{0, 1, 2, 1, 1});
+        define("Galeao", Compass.SOUTH, new int[]{0, 1, 2, 2, 2}, new int[]{0, 0, -1, 0, 1});
+        define("Galeao", Compass.EAST, new int[]{0, 1, 1, 1, 2}, new int[]{0, -2, -1, 0, 0});
+        define("Galeao", Compass.WEST, new int[]{0, 1, 1, 1, 2}, new int[]{0, 0, 1, 2, 0});
+    }
+
+    private static void define(String category, Compass bearing, int[] rows, int[] columns) {
+        SHAPES.get(category)[bearing.ordinal()] = new ShipShape(category, bearing, rows, columns);
+    }
+
+    /**
+     * @param category the ship category, as returned by IShip.getCategory()
+     * @param bearing  the ship bearing
+     * @return the shape, or null if ships of that category cannot take that bearing
+     */
+    public static ShipShape of(String category, Compass bearing) {
+        ShipShape[] shapes = SHAPES.get(category);
+        return (shapes == null || bearing == null) ? null : shapes[bearing.ordinal()];
+    }
+
+    /**
+     * @param category the ship category
+     * @return the shapes of the category on the four cardinal bearings, without
+     * repeating those that cover the same cells
+     */
+    public static ShipShape[] distinct(String category) {
+        ShipShape[] shapes = new ShipShape[4];
+        int count = 0;
+        for (Compass bearing : new Compass[]{Compass.NORTH, Compass.SOUTH, Compass.EAST, Compass.WEST}) {
+            ShipShape shape = of(category, bearing);
+            boolean repeated = shape == null;
+            for (int i = 0; i < count && !repeated; i++)
+                repeated = shapes[i].sameCells(shape);
+            if (!repeated)
+                shapes[count++] = shape;
+        }
+        return Arrays.copyOf(shapes, count);
+    }
+
+    /**
+     * @param category a ship category
+     * @return its index in CATEGORIES, or -1 if it is unknown
+     */
+    public static int categoryIndex(String category) {
+        for (int i = 0; i < CATEGORIES.length; i++)
+            if (CATEGORIES[i].equals(category))
+                return i;
+        return -1;
+    }
+
+    // -----------------------------------------------------
+
+    private final String category;
+    private final Compass bearing;
+    private final int[] rows;
+    private final int[] columns;
+    private final int top;
+    private final int bottom;
+    private final int left;
+    private final int right;
+
+    private ShipShape(String category, Compass bearing, int[] rows, int[] columns) {
+        this.category = category;
+        this.bearing = bearing;
+        this.rows = rows;
+        this.columns = columns;
+
+        int t = 0, b = 0, l = 0, r = 0;
+        for (int i = 0; i < rows.length; i++) {
+            t = Math.min(t, rows[i]);
+            b = Math.max(b, rows[i]);
+            l = Math.min(l, columns[i]);
+            r = Math.max(r, columns[i]);
+        }
+        top = t;
+        bottom = b;
+        left = l;
+        right = r;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Compass getBearing() {
+        return bearing;
+    }
+
+    public int getSize() {
+        return rows.length;
+    }
+
+    /**
+     * @param i index of a cell of the shape
+     * @return its row offset from the anchor
+     */
+    public int rowOffset(int i) {
+        return rows[i];
+    }
+
+    /**
+     * @param i index of a cell of the shape
+     * @return its column offset from the anchor
+     */
+    public int columnOffset(int i) {
+        return columns[i];
+    }
+
+    /**
+     * Bounding box of the shape, as offsets from the anchor
+     */
+    public int getTop() {
+        return top;
+    }
+
+    public int getBottom() {
+        return bottom;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getRight() {
+        return right;
+    }
+
+    /**
+     * The bitboard mask of the shape on a board of the given width: a shape
+     * anchored at cell a covers the bits a + offset, for every returned offset.
+     *
+     * @param boardColumns the number of columns of the board
+     * @return the cell offsets of the shape
+     */
+    public int[] cellOffsets(int boardColumns) {
+        int[] offsets = new int[rows.length];
+        for (int i = 0; i < rows.length; i++)
+            offsets[i] = rows[i] * boardColumns + columns[i];
+        return offsets;
+    }
+
+    /**
+     * @param other another shape
+     * @return true if both shapes cover the same cells around their anchor
+     */
+    public boolean sameCells(ShipShape other) {
+        return Arrays.equals(rows, other.rows) && Arrays.equals(columns, other.columns);
+    }
+
+    /**
+     * @param geometry the board
+     * @param row      the row of the anchor
+     * @param column   the column of the anchor
+     * @return true if the shape anchored there lies inside the board
+     */
+    public boolean fits(BoardGeometry geometry, int row, int column) {
+        return geometry.contains(row + top, column + left) && geometry.contains(row + bottom, column + right);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + category + " " + bearing + "]";
+    }
+
+}
@@ -0,0 +1,122 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * Aggregated results of a batch of simulated games. Each worker fills its own
+ * instance and the instances are merged when the workers finish.
+ */
+public class SimulationStats {
+    private long games;
+    private long wins;
+    private long shots;
+    private long squaredShots;
+    private long hits;
+    private long repeatedShots;
+    private long invalidShots;
+    private int minShots = Integer.MAX_VALUE;
+    private int maxShots;
+
+    /**
+     * Records the outcome of one game
+     *
+     * @param game  the finished game
+     * @param fired the number of times the shooter fired
+     */
+    void record(IGame game, int fired) {
+        games++;
+        if (game.getRemainingShips() == 0)
+            wins++;
+        shots += fired;
+        squaredShots += (long) fired * fired;
+        hits += game.getHits();
+        repeatedShots += game.getRepeatedShots();
+        invalidShots += game.getInvalidShots();
+        minShots = Math.min(minShots, fired);
+        maxShots = Math.max(maxShots, fired);
+    }
+
+    /**
+     * Adds the results of another batch to this one
+     *
+     * @param other the results to add
+     * @return this instance
+     */
+    SimulationStats merge(SimulationStats other) {
+        games += other.games;
+        wins += other.wins;
+        shots += other.shots;
+        squaredShots += other.squaredShots;
+        hits += other.hits;
+        repeatedShots += other.repeatedShots;
+        invalidShots += other.invalidShots;
+        minShots = Math.min(minShots, other.minShots);
+        maxShots = Math.max(maxShots, other.maxShots);
+        return this;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getShots() {
+        return shots;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getRepeatedShots() {
+        return repeatedShots;
+    }
+
+    public long getInvalidShots() {
+        return invalidShots;
+    }
+
+    public int getMinShots() {
+        return games == 0 ? 0 : minShots;
+    }
+
+    public int getMaxShots() {
+        return maxShots;
+    }
+
+    /**
+     * @return the mean number of shots per game
+     */
+    public double getMeanShots() {
+        return games == 0 ? 0 : (double) shots / games;
+    }
+
+    /**
+     * @return the standard deviation of the number of shots per game
+     */
+    public double getStdDevShots() {
+        if (games == 0)
+            return 0;
+        double mean = getMeanShots();
+        return Math.sqrt(Math.max(0, (double) squaredShots / games - mean * mean));
+    }
+
+    /**
+     * @return the fraction of shots that hit a ship
+     */
+    public double getEfficiency() {
+        return shots == 0 ? 0 : (double) hits / shots;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Jogos: %d Vitorias: %d Tiros: %.2f +- %.2f [%d, %d] Eficiencia: %.3f Rep: %d Inv: %d",
+                games, wins, getMeanShots(), getStdDevShots(), getMinShots(), maxShots, getEfficiency(),
+                repeatedShots, invalidShots);
+    }
+
+}
@@ -0,0 +1,134 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Headless self-play: plays many games between randomly placed fleets and a
+ * shooting strategy, spreading them over a ForkJoin pool.
+ * <p>
+ * The games are split in halves until they are small enough to be played by
+ * one worker, and every split derives the random generator of the second half
+ * from the first with SplittableRandom.split(). The split tree depends only on
+ * the number of games, so a given seed always produces the same results no
+ * matter how many threads take part. Each worker keeps its own shooter and
+ * statistics, which are merged as the halves are joined.
+ */
+public class Simulator {
+    /**
+     * Number of games below which a task is played instead of split
+     */
+    static final int BATCH = 256;
+
+    private final BoardGeometry geometry;
+    private final int[] composition;
+    private final Supplier<? extends IShooter> shooters;
+    private final ForkJoinPool pool;
+
+    /**
+     * Simulates the standard game on the common pool
+     *
+     * @param shooters makes a shooter for each worker
+     */
+    public Simulator(Supplier<? extends IShooter> shooters) {
+        this(BoardGeometry.STANDARD, FleetGenerator.STANDARD_FLEET, shooters, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param geometry    the board
+     * @param composition the number of ships per ShipShape.CATEGORIES entry
+     * @param shooters    makes a shooter for each worker
+     * @param pool        the pool that plays the games
+     */
+    public Simulator(BoardGeometry geometry, int[] composition, Supplier<? extends IShooter> shooters,
+                     ForkJoinPool pool) {
+        assert geometry != null && composition != null && shooters != null && pool != null;
+        if (composition.length != ShipShape.CATEGORIES.length)
+            throw new IllegalArgumentException("ERROR! fleet composition must give one count per category");
+
+        this.geometry = geometry;
+        this.composition = composition.clone();
+        this.shooters = shooters;
+        this.pool = pool;
+    }
+
+    /**
+     * Plays a number of games
+     *
+     * @param games the number of games to play
+     * @param seed  the seed of the whole simulation
+     * @return the aggregated results
+     */
+    public SimulationStats run(long games, long seed) {
+        assert games >= 0;
+
+        return pool.invoke(new Batch(games, new SplittableRandom(seed)));
+    }
+
+    /**
+     * A range of games with its own random generator
+     */
+    private class Batch extends RecursiveTask<SimulationStats> {
+        private final long games;
+        private final SplittableRandom random;
+
+        Batch(long games, SplittableRandom random) {
+            this.games = games;
+            this.random = random;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (games <= BATCH)
+                return play(games, random);
+
+            Batch second = new Batch(games / 2, random.split());
+            Batch first = new Batch(games - games / 2, random);
+            second.fork();
+            SimulationStats stats = first.compute();
+            return stats.merge(second.join());
+        }
+    }
+
+    private SimulationStats play(long games, SplittableRandom random) {
+        SimulationStats stats = new SimulationStats();
+        IShooter shooter = shooters.get();
+        FleetGenerator generator = new FleetGenerator(geometry, composition);
+        for (long i = 0; i < games; i++) {
+            Game game = new Game(generator.generate(random));
+            shooter.newGame(geometry, random);
+            stats.record(game, play(game, shooter, 2 * geometry.getCellCount()));
+        }
+        return stats;
+    }
+
+    /**
+     * Lets a shooter fire at a game until every ship is sunk or the shot limit
+     * is reached
+     *
+     * @param game     the game
+     * @param shooter  the shooter, already prepared for the game
+     * @param maxShots the shot limit
+     * @return the number of shots fired
+     */
+    public static int play(IGame game, IShooter shooter, int maxShots) {
+        int[] cells = new int[1];
+        byte[] results = new byte[1];
+        int fired = 0;
+        while (game.getRemainingShips() > 0 && fired < maxShots) {
+            int cell = shooter.nextShot();
+            cells[0] = cell;
+            game.fire(cells, results);
+            fired++;
+            shooter.shotResult(cell, results[0] == IGame.HIT || results[0] == IGame.SUNK,
+                    results[0] == IGame.SUNK ? game.sunkShipAt(cell) : null);
+        }
+        return fired;
+    }
+
+}
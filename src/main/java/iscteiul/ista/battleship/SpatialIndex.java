@@ -0,0 +1,73 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid over the board, in buckets of BUCKET x BUCKET cells. A bucket
+ * gets a table of the ship on each of its cells when a ship first occupies one
+ * of them, so memory grows with the part of the board the ships cover rather
+ * than with the whole board, and a lookup is two array reads whatever the
+ * number of ships.
+ */
+public class SpatialIndex {
+    private static final int SHIFT = 3;
+    static final int BUCKET = 1 << SHIFT;
+
+    private final int bucketColumns;
+    private final IShip[][] buckets;
+
+    /**
+     * @param geometry the board to be indexed
+     */
+    public SpatialIndex(BoardGeometry geometry) {
+        int bucketRows = (geometry.getRows() + BUCKET - 1) >>> SHIFT;
+        bucketColumns = (geometry.getColumns() + BUCKET - 1) >>> SHIFT;
+        buckets = new IShip[bucketRows * bucketColumns][];
+    }
+
+    /**
+     * Registers a ship, which must lie inside the board, on every cell it
+     * occupies
+     *
+     * @param s the ship to register
+     */
+    public void add(IShip s) {
+        for (IPosition p : s.getPositions()) {
+            int bucket = bucketOf(p.getRow(), p.getColumn());
+            if (buckets[bucket] == null)
+                buckets[bucket] = new IShip[BUCKET * BUCKET];
+            buckets[bucket][slotOf(p.getRow(), p.getColumn())] = s;
+        }
+    }
+
+    /**
+     * Unregisters every ship, keeping the buckets for reuse
+     */
+    public void clear() {
+        for (IShip[] bucket : buckets)
+            if (bucket != null)
+                Arrays.fill(bucket, null);
+    }
+
+    /**
+     * @param row    a row of the board
+     * @param column a column of the board
+     * @return the registered ship occupying that cell, or null if there is none
+     */
+    public IShip shipAt(int row, int column) {
+        IShip[] bucket = buckets[bucketOf(row, column)];
+        return bucket == null ? null : bucket[slotOf(row, column)];
+    }
+
+    private int bucketOf(int row, int column) {
+        return (row >>> SHIFT) * bucketColumns + (column >>> SHIFT);
+    }
+
+    private static int slotOf(int row, int column) {
+        return (row & BUCKET - 1) << SHIFT | column & BUCKET - 1;
+    }
+
+}
@@ -3,11 +3,11 @@
  */
 package iscteiul.ista.battleship;
 
-import java.util.Scanner;
-
+import java.io.PrintStream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
 
 public class Tasks {
     private static final Logger LOGGER = LogManager.getLogger();
@@ -25,6 +25,7 @@ public class Tasks {
     private static final String VERTIROS = "ver";
     private static final String BATOTA = "mapa";
     private static final String STATUS = "estado";
+    private static final String[] COMMANDS = {NOVAFROTA, DESISTIR, RAJADA, VERTIROS, BATOTA, STATUS};
 
 
     /////////////////////////////////////////////////////////////////////////////
@@ -39,12 +40,12 @@ public class Tasks {
      * indicates whether the ship occupies each one of such positions or not
      */
     public static void taskA() {
-        Scanner in = new Scanner(System.in);
+        Tokenizer in = new Tokenizer(System.in);
         while (in.hasNext()) {
             Ship s = readShip(in);
             if (s != null)
                 for (int i = 0; i < NUMBER_SHOTS; i++) {
-                    Position p = readPosition(in);
+                    IPosition p = readPosition(in);
                     LOGGER.info("{} {}", p, s.occupies(p));
                 }
         }
@@ -54,9 +55,9 @@ public class Tasks {
      * This task tests the building up of fleets
      */
     public static void taskB() {
-        Scanner in = new Scanner(System.in);
+        Tokenizer in = new Tokenizer(System.in);
         IFleet fleet = null;
-        String command = in.next();
+        String command = in.nextKeyword(COMMANDS);
         while (!command.equals(DESISTIR)) {
             switch (command) {
                 case NOVAFROTA:
@@ -70,7 +71,7 @@ public class Tasks {
                     LOGGER.info("Que comando é esse??? Repete lá ...");
             }
             // The other commands are unknown in this task
-            command = in.next();
+            command = in.nextKeyword(COMMANDS);
         }
         LOGGER.info(GOODBYE_MESSAGE);
     }
@@ -80,9 +81,9 @@ public class Tasks {
      * possibility of cheating
      */
     public static void taskC() {
-        Scanner in = new Scanner(System.in);
+        Tokenizer in = new Tokenizer(System.in);
         IFleet fleet = null;
-        String command = in.next();
+        String command = in.nextKeyword(COMMANDS);
         while (!command.equals(DESISTIR)) {
             switch (command) {
                 case NOVAFROTA:
@@ -99,7 +100,7 @@ public class Tasks {
                     LOGGER.info("Que comando é esse??? Repete lá ...");
             }
             // The other commands are unknown in this task
-            command = in.next();
+            command = in.nextKeyword(COMMANDS);
         }
         LOGGER.info(GOODBYE_MESSAGE);
     }
@@ -108,54 +109,96 @@ public class Tasks {
      * This task also tests the fighting element of a round of three shots
      */
     public static void taskD() {
+        taskD(new Tokenizer(System.in), Console.LOG);
+    }
 
-        Scanner in = new Scanner(System.in);
-        IFleet fleet = null;
-        IGame game = null;
-        String command = in.next();
+    /**
+     * Plays the commands of taskD from a script, printing the messages and the
+     * boards to a stream of its own instead of the log and the console
+     *
+     * @param in  The tokenizer to read the script from
+     * @param out The stream to print to
+     */
+    static void taskD(Tokenizer in, PrintStream out) {
+        taskD(in, new Console(out));
+    }
+
+    private static void taskD(Tokenizer in, Console console) {
+        Fleet fleet = null;
+        Game game = null;
+        String command = in.nextKeyword(COMMANDS);
         while (!command.equals(DESISTIR)) {
             switch (command) {
                 case NOVAFROTA:
-                    fleet = buildFleet(in);
+                    fleet = buildFleet(in, console);
                     game = new Game(fleet);
                     break;
                 case STATUS:
                     if (fleet != null)
-                        fleet.printStatus();
+                        fleet.printStatus(console.out());
                     break;
                 case BATOTA:
                     if (fleet != null)
-                        game.printFleet();
+                        game.printFleet(console.out());
                     break;
                 case RAJADA:
                     if (game != null) {
-                        firingRound(in, game);
+                        firingRound(in, game, console);
 
-                        LOGGER.info("Hits: {} Inv: {} Rep: {} Restam {} navios.", game.getHits(), game.getInvalidShots(),
+                        console.info("Hits: {} Inv: {} Rep: {} Restam {} navios.", game.getHits(), game.getInvalidShots(),
                                 game.getRepeatedShots(), game.getRemainingShips());
                         if (game.getRemainingShips() == 0)
-                            LOGGER.info("Maldito sejas, Java Sparrow, eu voltarei, glub glub glub...");
+                            console.info("Maldito sejas, Java Sparrow, eu voltarei, glub glub glub...");
                     }
                     break;
                 case VERTIROS:
                     if (game != null)
-                        game.printValidShots();
+                        game.printValidShots(console.out());
                     break;
                 default:
-                    LOGGER.info("Que comando é esse??? Repete ...");
+                    console.info("Que comando é esse??? Repete ...");
             }
-            command = in.next();
+            command = in.nextKeyword(COMMANDS);
+        }
+        console.info(GOODBYE_MESSAGE);
+    }
+
+    /**
+     * Where a task reports to: either the log, with the boards on the console,
+     * or a single stream for both
+     */
+    private static class Console {
+        static final Console LOG = new Console(null);
+
+        private final PrintStream out;
+
+        Console(PrintStream out) {
+            this.out = out;
+        }
+
+        PrintStream out() {
+            return out == null ? System.out : out;
+        }
+
+        void info(String message, Object... params) {
+            if (out == null)
+                LOGGER.info(message, params);
+            else
+                out.println(ParameterizedMessage.format(message, params));
         }
-        LOGGER.info(GOODBYE_MESSAGE);
     }
 
     /**
      * This operation allows the build up of a fleet, given user data
      *
-     * @param in The scanner to read from
+     * @param in The tokenizer to read from
      * @return The fleet that has been built
      */
-    static Fleet buildFleet(Scanner in) {
+    static Fleet buildFleet(Tokenizer in) {
+        return buildFleet(in, Console.LOG);
+    }
+
+    private static Fleet buildFleet(Tokenizer in, Console console) {
         assert in != null;
 
         Fleet fleet = new Fleet();
@@ -168,25 +211,25 @@ public class Tasks {
                 if (success)
                     i++;
                 else
-                    LOGGER.info("Falha na criacao de {} {} {}", s.getCategory(), s.getBearing(), s.getPosition());
+                    console.info("Falha na criacao de {} {} {}", s.getCategory(), s.getBearing(), s.getPosition());
             } else {
-                LOGGER.info("Navio desconhecido!");
+                console.info("Navio desconhecido!");
             }
         }
-        LOGGER.info("{} navios adicionados com sucesso!", i);
+        console.info("{} navios adicionados com sucesso!", i);
         return fleet;
     }
 
     /**
      * This operation reads data about a ship, build it and returns it
      *
-     * @param in The scanner to read from
+     * @param in The tokenizer to read from
      * @return The created ship based on the data that has been read
      */
-    static Ship readShip(Scanner in) {
-        String shipKind = in.next();
-        Position pos = readPosition(in);
-        char c = in.next().charAt(0);
+    static Ship readShip(Tokenizer in) {
+        String shipKind = in.nextKeyword(Ship.KINDS);
+        IPosition pos = readPosition(in);
+        char c = in.nextChar();
         Compass bearing = Compass.charToCompass(c);
         return Ship.buildShip(shipKind, bearing, pos);
     }
@@ -194,30 +237,40 @@ public class Tasks {
     /**
      * This operation allows reading a position in the map
      *
-     * @param in The scanner to read from
+     * @param in The tokenizer to read from
      * @return The position that has been read
      */
-    static Position readPosition(Scanner in) {
+    static IPosition readPosition(Tokenizer in) {
         int row = in.nextInt();
         int column = in.nextInt();
-        return new Position(row, column);
+        return Cell.of(row, column);
     }
 
     /**
      * This operation allows firing a round of shots (three) over a fleet, in the
      * context of a game
      *
-     * @param in   The scanner to read from
+     * @param in   The tokenizer to read from
      * @param game The context game while fleet is being attacked
      */
-    static void firingRound(Scanner in, IGame game) {
+    static void firingRound(Tokenizer in, IGame game) {
+        firingRound(in, game, Console.LOG);
+    }
+
+    private static void firingRound(Tokenizer in, IGame game, Console console) {
+        BoardGeometry geometry = game.getGeometry();
+        int[] cells = new int[NUMBER_SHOTS];
+        byte[] results = new byte[NUMBER_SHOTS];
         for (int i = 0; i < NUMBER_SHOTS; i++) {
             IPosition pos = readPosition(in);
-            IShip sh = game.fire(pos);
-            if (sh != null)
-                LOGGER.info("Mas... mas... {}s nao sao a prova de bala? :-(", sh.getCategory());
+            boolean valid = geometry.contains(pos.getRow(), pos.getColumn());
+            cells[i] = valid ? geometry.cell(pos.getRow(), pos.getColumn()) : -1;
         }
 
+        game.fire(cells, results);
+        for (int i = 0; i < NUMBER_SHOTS; i++)
+            if (results[i] == IGame.SUNK)
+                console.info("Mas... mas... {}s nao sao a prova de bala? :-(", game.sunkShipAt(cells[i]).getCategory());
     }
 
 }
@@ -0,0 +1,204 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits a stream of ASCII text into whitespace separated tokens, as a Scanner
+ * with the default delimiter does, but works on the bytes themselves. Integers
+ * are parsed digit by digit and keywords are compared byte by byte against the
+ * expected words, so reading a token creates no String. The bytes of the
+ * current token are kept in a buffer reused from one token to the next.
+ * <p>
+ * A tokenizer reads either from an InputStream, through a buffer of its own,
+ * or straight from a ByteBuffer.
+ */
+public class Tokenizer {
+    private static final int BUFFER_SIZE = 1 << 13;
+
+    private final InputStream in;
+    private final ByteBuffer source;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+
+    private byte[] token;
+    private int length;
+
+    /**
+     * @param in the stream to read from
+     */
+    public Tokenizer(InputStream in) {
+        this(in, BUFFER_SIZE);
+    }
+
+    /**
+     * @param in         the stream to read from
+     * @param bufferSize the number of bytes read from the stream at a time
+     */
+    Tokenizer(InputStream in, int bufferSize) {
+        assert in != null && bufferSize > 0;
+
+        this.in = in;
+        this.source = null;
+        this.buffer = new byte[bufferSize];
+        this.token = new byte[16];
+    }
+
+    /**
+     * @param source the bytes to read, from its position to its limit
+     */
+    public Tokenizer(ByteBuffer source) {
+        assert source != null;
+
+        this.in = null;
+        this.source = source;
+        this.buffer = null;
+        this.token = new byte[16];
+    }
+
+    /**
+     * @return the next byte, or -1 at the end of the input
+     */
+    private int read() {
+        if (source != null)
+            return source.hasRemaining() ? source.get() & 0xFF : -1;
+        if (position == limit) {
+            try {
+                limit = in.read(buffer, 0, buffer.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * Steps back over the byte just read
+     */
+    private void unread() {
+        if (source != null)
+            source.position(source.position() - 1);
+        else
+            position--;
+    }
+
+    private static boolean isWhitespace(int b) {
+        return b <= ' ';
+    }
+
+    /**
+     * @return true if there is another token in the input
+     */
+    public boolean hasNext() {
+        int b;
+        do
+            b = read();
+        while (b >= 0 && isWhitespace(b));
+        if (b < 0)
+            return false;
+        unread();
+        return true;
+    }
+
+    /**
+     * Reads the next token into the token buffer
+     *
+     * @throws NoSuchElementException if the input is exhausted
+     */
+    private void advance() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        length = 0;
+        int b = read();
+        while (b >= 0 && !isWhitespace(b)) {
+            if (length == token.length) {
+                byte[] grown = new byte[2 * token.length];
+                System.arraycopy(token, 0, grown, 0, length);
+                token = grown;
+            }
+            token[length++] = (byte) b;
+            b = read();
+        }
+    }
+
+    /**
+     * @return the next token, read as a decimal integer
+     * @throws InputMismatchException if the token is not an int
+     * @throws NoSuchElementException if the input is exhausted
+     */
+    public int nextInt() {
+        advance();
+
+        int i = 0;
+        boolean negative = token[0] == '-';
+        if (negative || token[0] == '+')
+            i++;
+        if (i == length)
+            throw new InputMismatchException("ERROR! not an integer");
+
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = token[i] - '0';
+            if (digit < 0 || digit > 9)
+                throw new InputMismatchException("ERROR! not an integer");
+            value = 10 * value + digit;
+            if (value > (long) Integer.MAX_VALUE + 1)
+                throw new InputMismatchException("ERROR! integer out of range");
+        }
+        if (negative)
+            value = -value;
+        if (value > Integer.MAX_VALUE)
+            throw new InputMismatchException("ERROR! integer out of range");
+        return (int) value;
+    }
+
+    /**
+     * @param keywords the words expected, in ASCII
+     * @return the keyword equal to the next token, or the empty string if the
+     * token is none of them
+     * @throws NoSuchElementException if the input is exhausted
+     */
+    public String nextKeyword(String[] keywords) {
+        assert keywords != null;
+
+        advance();
+        for (String keyword : keywords)
+            if (matches(keyword))
+                return keyword;
+        return "";
+    }
+
+    private boolean matches(String keyword) {
+        if (keyword.length() != length)
+            return false;
+        for (int i = 0; i < length; i++)
+            if ((token[i] & 0xFF) != keyword.charAt(i))
+                return false;
+        return true;
+    }
+
+    /**
+     * @return the first character of the next token; the rest of the token is
+     * skipped
+     * @throws NoSuchElementException if the input is exhausted
+     */
+    public char nextChar() {
+        advance();
+        return (char) (token[0] & 0xFF);
+    }
+
+}
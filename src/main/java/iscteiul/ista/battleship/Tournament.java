@@ -0,0 +1,168 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays every registered strategy against the same series of random fleet
+ * layouts and ranks the strategies by the number of shots they need to win.
+ * <p>
+ * The layouts are split over a work-stealing pool in the same way as the
+ * Simulator does with games. A worker owns one Fleet, one Game and one shooter
+ * per strategy: for each layout it refills the fleet, and before each match it
+ * resets the game, so no object is allocated per pairing. Every match is
+ * recorded at once in the worker's own table, and the tables are merged as the
+ * tasks join, so memory does not grow with the number of pairings.
+ */
+public class Tournament {
+    private final BoardGeometry geometry;
+    private final int[] composition;
+    private final ForkJoinPool pool;
+
+    private final List<String> names;
+    private final List<Supplier<? extends IShooter>> strategies;
+
+    /**
+     * A tournament on the standard board, played on the common pool
+     */
+    public Tournament() {
+        this(BoardGeometry.STANDARD, FleetGenerator.STANDARD_FLEET, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param geometry    the board
+     * @param composition the number of ships per ShipShape.CATEGORIES entry
+     * @param pool        the pool that plays the matches
+     */
+    public Tournament(BoardGeometry geometry, int[] composition, ForkJoinPool pool) throws IllegalArgumentException {
+        assert geometry != null && composition != null && pool != null;
+        if (composition.length != ShipShape.CATEGORIES.length)
+            throw new IllegalArgumentException("ERROR! fleet composition must give one count per category");
+
+        this.geometry = geometry;
+        this.composition = composition.clone();
+        this.pool = pool;
+        names = new ArrayList<>();
+        strategies = new ArrayList<>();
+    }
+
+    /**
+     * Registers a strategy
+     *
+     * @param name     the name of the strategy in the ranking
+     * @param shooters makes a shooter for each worker
+     */
+    public void addStrategy(String name, Supplier<? extends IShooter> shooters) {
+        assert name != null && shooters != null;
+
+        names.add(name);
+        strategies.add(shooters);
+    }
+
+    /**
+     * Plays every strategy against a number of layouts
+     *
+     * @param layouts the number of fleet layouts
+     * @param seed    the seed of the whole tournament
+     * @return the standings, best strategy first
+     */
+    public List<Standing> run(long layouts, long seed) {
+        assert layouts >= 0;
+
+        SimulationStats[] table = pool.invoke(new Round(layouts, new SplittableRandom(seed)));
+
+        List<Standing> ranking = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++)
+            ranking.add(new Standing(names.get(i), table[i]));
+        ranking.sort(Comparator.comparingLong((Standing s) -> -s.getStats().getWins())
+                .thenComparingDouble(s -> s.getStats().getMeanShots()));
+        return ranking;
+    }
+
+    /**
+     * A range of layouts with its own random generator
+     */
+    private class Round extends RecursiveTask<SimulationStats[]> {
+        private final long layouts;
+        private final SplittableRandom random;
+
+        Round(long layouts, SplittableRandom random) {
+            this.layouts = layouts;
+            this.random = random;
+        }
+
+        @Override
+        protected SimulationStats[] compute() {
+            if (layouts <= Simulator.BATCH)
+                return play(layouts, random);
+
+            Round second = new Round(layouts / 2, random.split());
+            Round first = new Round(layouts - layouts / 2, random);
+            second.fork();
+            SimulationStats[] table = first.compute();
+            SimulationStats[] other = second.join();
+            for (int i = 0; i < table.length; i++)
+                table[i].merge(other[i]);
+            return table;
+        }
+    }
+
+    private SimulationStats[] play(long layouts, SplittableRandom random) {
+        FleetGenerator generator = new FleetGenerator(geometry, composition);
+        IFleet fleet = new Fleet(geometry);
+        IGame game = new Game(fleet);
+        IShooter[] shooters = new IShooter[strategies.size()];
+        SimulationStats[] table = new SimulationStats[strategies.size()];
+        for (int i = 0; i < shooters.length; i++) {
+            shooters[i] = strategies.get(i).get();
+            table[i] = new SimulationStats();
+        }
+
+        for (long layout = 0; layout < layouts; layout++) {
+            generator.next(random);
+            fleet.clear();
+            generator.fill(fleet);
+            for (int i = 0; i < shooters.length; i++) {
+                game.reset();
+                shooters[i].newGame(geometry, random);
+                table[i].record(game, Simulator.play(game, shooters[i], 2 * geometry.getCellCount()));
+            }
+        }
+        return table;
+    }
+
+    /**
+     * The results of one strategy
+     */
+    public static class Standing {
+        private final String name;
+        private final SimulationStats stats;
+
+        Standing(String name, SimulationStats stats) {
+            this.name = name;
+            this.stats = stats;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public SimulationStats getStats() {
+            return stats;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + stats;
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A fixed-size, lock-free map from 64-bit state hashes to 64-bit values, e.g.
+ * an evaluation and a visit count packed together by the caller.
+ * <p>
+ * Each slot holds two words: the value, and the hash XOR the value. Threads
+ * read and write both words without locking; a reader that sees words from two
+ * different writes gets a check that does not match its hash and treats the
+ * slot as empty. A new entry always replaces the one in its slot. Nothing is
+ * allocated after construction.
+ */
+public class TranspositionTable {
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] slots;
+    private final int shift;
+
+    /**
+     * @param capacity the minimum number of entries, rounded up to a power of 2
+     */
+    public TranspositionTable(int capacity) throws IllegalArgumentException {
+        if (capacity <= 0 || capacity > 1 << 29)
+            throw new IllegalArgumentException("ERROR! invalid table capacity " + capacity);
+
+        int bits = 32 - Integer.numberOfLeadingZeros(capacity - 1);
+        slots = new long[2 << bits];
+        shift = 64 - bits;
+    }
+
+    /**
+     * @return the number of entries the table can hold
+     */
+    public int capacity() {
+        return slots.length / 2;
+    }
+
+    /**
+     * @param hash    the hash of a state
+     * @param missing the value to return if the state is not in the table
+     * @return the value stored for the state, or missing
+     */
+    public long get(long hash, long missing) {
+        int i = index(hash);
+        long check = (long) SLOT.getOpaque(slots, i);
+        long value = (long) SLOT.getOpaque(slots, i + 1);
+        return (check ^ value) == hash ? value : missing;
+    }
+
+    /**
+     * Stores a value for a state, replacing whatever its slot held
+     *
+     * @param hash  the hash of the state
+     * @param value the value
+     */
+    public void put(long hash, long value) {
+        int i = index(hash);
+        SLOT.setOpaque(slots, i, hash ^ value);
+        SLOT.setOpaque(slots, i + 1, value);
+    }
+
+    /**
+     * Empties the table; not to be called while other threads use it
+     */
+    public void clear() {
+        Arrays.fill(slots, 0L);
+    }
+
+    private int index(long hash) {
+        return shift == 64 ? 0 : (int) (hash >>> shift) << 1;
+    }
+
+}
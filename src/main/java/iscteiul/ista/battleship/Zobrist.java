@@ -0,0 +1,40 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * Zobrist keys for the shot state of a board. Every (cell, outcome) pair has a
+ * pseudo-random 64-bit key, and the hash of a state is the XOR of the keys of
+ * the shots fired, so it does not depend on the order of the shots and is
+ * updated with one XOR per shot, or per shot taken back.
+ * <p>
+ * The keys are computed by a SplitMix64 finaliser of the cell index instead of
+ * being read from a table, which works for boards of any size.
+ */
+public final class Zobrist {
+    /**
+     * The hash of a board with no shots. It is not zero so that an empty
+     * transposition table slot never matches a real state.
+     */
+    public static final long EMPTY = mix(0x5DEECE66DL);
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param cell a cell of the board
+     * @param hit  whether the shot at the cell hit a ship
+     * @return the key of that shot
+     */
+    public static long key(int cell, boolean hit) {
+        return mix(0x9E3779B97F4A7C15L * (2L * cell + (hit ? 2 : 1)));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,77 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe BatchRunner")
+class BatchRunnerTest {
+
+    @TempDir
+    Path dir;
+
+    private static String fleetScript() {
+        StringBuilder script = new StringBuilder("nova\n");
+        for (int i = 0; i <= Fleet.FLEET_SIZE; i++)
+            script.append("barca ").append(i / 5 * 2).append(' ').append(i % 5 * 2).append(" n\n");
+        return script.toString();
+    }
+
+    private void write(String name, String text) throws IOException {
+        Files.writeString(dir.resolve(name), text, StandardCharsets.UTF_8);
+    }
+
+    private List<String> output(Path outputs, String name) throws IOException {
+        return Files.readAllLines(outputs.resolve(name + BatchRunner.OUTPUT_SUFFIX), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Cada script é jogado e escreve no seu próprio ficheiro")
+    void playsEveryScript() throws IOException {
+        String game = fleetScript() + "rajada 0 0 0 1 20 20\nver\nfoo\ndesisto\n";
+        for (int i = 0; i < 8; i++)
+            write("jogo" + i + ".txt", game);
+        write("curto.txt", "estado\n");
+
+        Path outputs = dir.resolve("saida");
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            assertEquals(8, new BatchRunner(pool).run(dir, outputs));
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int i = 0; i < 8; i++) {
+            List<String> lines = output(outputs, "jogo" + i + ".txt");
+            assertEquals("11 navios adicionados com sucesso!", lines.get(0));
+            assertEquals("Mas... mas... Barcas nao sao a prova de bala? :-(", lines.get(1));
+            assertEquals("Hits: 1 Inv: 1 Rep: 0 Restam 10 navios.", lines.get(2));
+            assertEquals("XX........", lines.get(3));
+            assertEquals("Que comando é esse??? Repete ...", lines.get(3 + BoardGeometry.STANDARD.getRows()));
+            assertEquals("Bons ventos!", lines.get(lines.size() - 1));
+        }
+        assertTrue(output(outputs, "curto.txt").get(0).startsWith("ERROR!"));
+    }
+
+    @Test
+    @DisplayName("As saídas podem ficar junto dos scripts sem serem jogadas")
+    void outputsBesideScripts() throws IOException {
+        write("a.txt", fleetScript() + "estado\ndesisto\n");
+        BatchRunner runner = new BatchRunner();
+        assertEquals(1, runner.run(dir, dir));
+        assertEquals(1, runner.run(dir, dir));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+}
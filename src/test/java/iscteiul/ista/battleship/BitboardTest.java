@@ -0,0 +1,59 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe Bitboard")
+class BitboardTest {
+
+    private Bitboard board;
+
+    @BeforeEach
+    void setUp() {
+        board = new Bitboard(100);
+    }
+
+    @Test
+    @DisplayName("Construtor cria conjunto vazio com o tamanho pedido")
+    void constructorCreatesEmptySet() {
+        assertEquals(100, board.size());
+        assertEquals(0, board.cardinality());
+        for (int cell = 0; cell < board.size(); cell++)
+            assertFalse(board.get(cell));
+    }
+
+    @Test
+    @DisplayName("set e clear alteram apenas a célula indicada, em ambas as palavras")
+    void setAndClearSingleCells() {
+        board.set(0);
+        board.set(63);
+        board.set(64);
+        board.set(99);
+
+        assertTrue(board.get(0));
+        assertTrue(board.get(63));
+        assertTrue(board.get(64));
+        assertTrue(board.get(99));
+        assertFalse(board.get(1));
+        assertFalse(board.get(65));
+        assertEquals(4, board.cardinality());
+
+        board.clear(63);
+        assertFalse(board.get(63));
+        assertTrue(board.get(64));
+        assertEquals(3, board.cardinality());
+    }
+
+    @Test
+    @DisplayName("clear() esvazia o conjunto")
+    void clearAll() {
+        board.set(5);
+        board.set(70);
+        board.clear();
+
+        assertEquals(0, board.cardinality());
+        assertFalse(board.get(5));
+        assertFalse(board.get(70));
+    }
+}
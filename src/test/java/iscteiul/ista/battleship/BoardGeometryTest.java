@@ -0,0 +1,67 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe BoardGeometry")
+class BoardGeometryTest {
+
+    @Test
+    @DisplayName("STANDARD corresponde às constantes de IFleet")
+    void standardMatchesConstants() {
+        assertEquals(IFleet.BOARD_SIZE, BoardGeometry.STANDARD.getRows());
+        assertEquals(IFleet.BOARD_SIZE, BoardGeometry.STANDARD.getColumns());
+        assertEquals(IFleet.FLEET_SIZE, BoardGeometry.STANDARD.getFleetSize());
+        assertEquals(100, BoardGeometry.STANDARD.getCellCount());
+    }
+
+    @Test
+    @DisplayName("cell, row e column são inversos num tabuleiro retangular")
+    void packingRoundTrip() {
+        BoardGeometry g = new BoardGeometry(7, 13, 3);
+        for (int r = 0; r < g.getRows(); r++)
+            for (int c = 0; c < g.getColumns(); c++) {
+                int cell = g.cell(r, c);
+                assertTrue(g.contains(cell));
+                assertEquals(r, g.row(cell));
+                assertEquals(c, g.column(cell));
+                assertEquals(Cell.of(r, c), g.position(cell));
+            }
+        assertFalse(g.contains(g.getCellCount()));
+        assertFalse(g.contains(-1));
+        assertFalse(g.contains(7, 0));
+        assertFalse(g.contains(0, 13));
+    }
+
+    @Test
+    @DisplayName("Dimensões inválidas são rejeitadas")
+    void invalidDimensionsThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new BoardGeometry(0, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BoardGeometry(10, -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BoardGeometry(100000, 100000, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BoardGeometry(10, 10, -1));
+    }
+
+    @Test
+    @DisplayName("Frota e jogo funcionam num tabuleiro 4096x4096")
+    void largeBoardGame() {
+        BoardGeometry g = new BoardGeometry(4096, 4096, 1000);
+        Fleet fleet = new Fleet(g);
+        IShip galleon = new Galleon(Compass.NORTH, new Position(4000, 4090));
+        assertTrue(fleet.addShip(galleon));
+        assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(4003, 4092))));
+        assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(4096, 0))));
+
+        Game game = new Game(fleet);
+        for (IPosition p : galleon.getPositions())
+            game.fire(g.cell(p.getRow(), p.getColumn()));
+        game.fire(g.getCellCount());
+
+        assertEquals(5, game.getHits());
+        assertEquals(1, game.getSunkShips());
+        assertEquals(0, game.getRemainingShips());
+        assertEquals(1, game.getInvalidShots());
+        assertEquals(galleon.getPositions(), game.getShots());
+    }
+}
@@ -0,0 +1,96 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe BoardRenderer")
+class BoardRendererTest {
+
+    private static final String N = System.lineSeparator();
+
+    private Fleet fleet;
+    private Game game;
+    private BoardRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        fleet = new Fleet(new BoardGeometry(3, 4, 2));
+        fleet.addShip(new Caravel(Compass.EAST, Cell.of(0, 0)));
+        fleet.addShip(new Barge(Compass.NORTH, Cell.of(2, 3)));
+        game = new Game(fleet);
+        game.fire(Cell.of(0, 1));
+        game.fire(Cell.of(1, 2));
+        game.fire(Cell.of(5, 5));
+        renderer = new BoardRenderer();
+    }
+
+    @Test
+    @DisplayName("Desenha a frota, os tiros e a vista combinada")
+    void views() {
+        assertEquals("##.." + N + "...." + N + "...#" + N, renderer.renderFleet(fleet).toString());
+        assertEquals(".X.." + N + "..X." + N + "...." + N, renderer.renderShots(game).toString());
+        assertEquals("#*.." + N + "..o." + N + "...#" + N, renderer.renderCombined(game, fleet).toString());
+    }
+
+    @Test
+    @DisplayName("Cada tabuleiro é entregue numa só escrita")
+    void singleWrite() throws IOException {
+        int[] writes = new int[1];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream counting = new OutputStream() {
+            @Override
+            public void write(int b) {
+                fail("escrita byte a byte");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                writes[0]++;
+                bytes.write(b, off, len);
+            }
+        };
+
+        renderer.renderShots(game);
+        renderer.writeTo(counting);
+        renderer.renderFleet(fleet);
+        renderer.writeTo(counting);
+        assertEquals(2, writes[0]);
+        assertEquals(".X.." + N + "..X." + N + "...." + N + "##.." + N + "...." + N + "...#" + N,
+                bytes.toString(StandardCharsets.US_ASCII));
+
+        StringBuilder text = new StringBuilder("> ");
+        renderer.writeTo(text);
+        assertEquals("> ##.." + N + "...." + N + "...#" + N, text.toString());
+    }
+
+    @Test
+    @DisplayName("O jogo imprime os mesmos tabuleiros de sempre")
+    void gamePrintsBoards() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.US_ASCII);
+        game.printValidShots(out);
+        game.printFleet(out);
+        assertEquals(".X.." + N + "..X." + N + "...." + N + "##.." + N + "...." + N + "...#" + N,
+                bytes.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    @DisplayName("Posições fora do tabuleiro são rejeitadas em vez de escritas noutra linha")
+    void rejectsPositionsOffTheBoard() {
+        BoardGeometry geometry = fleet.getGeometry();
+        for (IPosition p : new IPosition[]{new Position(0, 4), new Position(0, 9), new Position(3, 0),
+                new Position(-1, 0), new Position(0, -1)})
+            assertThrows(IllegalArgumentException.class, () -> renderer.render(geometry, List.of(p), 'Z'));
+        assertThrows(IllegalArgumentException.class,
+                () -> game.printBoard(List.of(new Position(0, 4)), 'Z'));
+    }
+
+}
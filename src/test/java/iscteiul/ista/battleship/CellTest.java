@@ -0,0 +1,41 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe Cell")
+class CellTest {
+
+    @Test
+    @DisplayName("of devolve a mesma instância para células do tabuleiro")
+    void ofReturnsSharedInstances() {
+        assertSame(Cell.of(3, 7), Cell.of(3, 7));
+        assertSame(Cell.of(3, 7), BoardGeometry.STANDARD.position(37));
+        assertNotSame(Cell.of(-1, 7), Cell.of(-1, 7));
+        assertEquals(Cell.of(5000, 7), Cell.of(5000, 7));
+    }
+
+    @Test
+    @DisplayName("equals e hashCode são compatíveis com Position")
+    void equalsAndHashCodeMatchPosition() {
+        Position p = new Position(4, 2);
+        p.shoot();
+        p.occupy();
+
+        assertEquals(p, Cell.of(4, 2));
+        assertEquals(Cell.of(4, 2), p);
+        assertEquals(p.hashCode(), Cell.of(4, 2).hashCode());
+        assertNotEquals(Cell.of(2, 4), p);
+    }
+
+    @Test
+    @DisplayName("Células são imutáveis")
+    void cellsAreImmutable() {
+        Cell cell = Cell.of(0, 0);
+        assertThrows(UnsupportedOperationException.class, cell::shoot);
+        assertThrows(UnsupportedOperationException.class, cell::occupy);
+        assertThrows(UnsupportedOperationException.class, cell::isHit);
+        assertThrows(UnsupportedOperationException.class, cell::isOccupied);
+    }
+}
@@ -0,0 +1,114 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe DensityShooter")
+class DensityShooterTest {
+
+    private static final BoardGeometry GEOMETRY = BoardGeometry.STANDARD;
+
+    private SplittableRandom random;
+    private FleetGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        random = new SplittableRandom(11);
+        generator = new FleetGenerator();
+    }
+
+    @Test
+    @DisplayName("Ganha todos os jogos sem tiros repetidos e com menos tiros que ao acaso")
+    void beatsRandomShooter() {
+        SimulationStats density = new Simulator(DensityShooter::new).run(500, 3);
+        SimulationStats blind = new Simulator(RandomShooter::new).run(500, 3);
+
+        assertEquals(500, density.getWins());
+        assertEquals(0, density.getRepeatedShots());
+        assertEquals(0, density.getInvalidShots());
+        assertTrue(density.getMeanShots() < 0.75 * blind.getMeanShots(),
+                density + " vs " + blind);
+    }
+
+    @Test
+    @DisplayName("O mapa de densidade incremental coincide com a contagem direta")
+    void incrementalDensityMatchesRecount() {
+        for (int round = 0; round < 5; round++) {
+            Game game = new Game(generator.generate(random));
+            DensityShooter shooter = new DensityShooter();
+            shooter.newGame(GEOMETRY, random);
+            Bitboard water = new Bitboard(GEOMETRY.getCellCount());
+            int[] floating = FleetGenerator.STANDARD_FLEET.clone();
+            assertDensity(shooter, water, floating);
+
+            while (game.getRemainingShips() > 0) {
+                int cell = shooter.nextShot();
+                int hits = game.getHits();
+                IShip sunk = game.fire(cell);
+                boolean hit = game.getHits() > hits;
+                shooter.shotResult(cell, hit, sunk);
+
+                if (!hit)
+                    water.set(cell);
+                if (sunk != null) {
+                    floating[ShipShape.categoryIndex(sunk.getCategory())]--;
+                    for (IPosition p : sunk.getPositions())
+                        for (int r = p.getRow() - 1; r <= p.getRow() + 1; r++)
+                            for (int c = p.getColumn() - 1; c <= p.getColumn() + 1; c++)
+                                if (GEOMETRY.contains(r, c))
+                                    water.set(GEOMETRY.cell(r, c));
+                }
+                assertDensity(shooter, water, floating);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Depois de um acerto dispara junto ao navio atingido")
+    void targetsNextToHits() {
+        Fleet fleet = new Fleet();
+        fleet.addShip(new Carrack(Compass.EAST, new Position(5, 3)));
+        Game game = new Game(fleet);
+        DensityShooter shooter = new DensityShooter(new int[]{0, 0, 1, 0, 0});
+        shooter.newGame(GEOMETRY, random);
+
+        int hit = GEOMETRY.cell(5, 4);
+        assertNull(game.fire(hit));
+        shooter.shotResult(hit, true, null);
+        for (int i = 0; i < 2; i++) {
+            int cell = shooter.nextShot();
+            assertTrue(Math.abs(GEOMETRY.row(cell) - 5) + Math.abs(GEOMETRY.column(cell) - 4) <= 2,
+                    "tiro longe do navio: " + GEOMETRY.position(cell));
+            int hits = game.getHits();
+            IShip sunk = game.fire(cell);
+            shooter.shotResult(cell, game.getHits() > hits, sunk);
+        }
+    }
+
+    /**
+     * Counts, for every cell, the placements of the floating categories that
+     * avoid the known water, weighted by the number of floating ships
+     */
+    private static void assertDensity(DensityShooter shooter, Bitboard water, int[] floating) {
+        int[] expected = new int[GEOMETRY.getCellCount()];
+        for (int category = 0; category < floating.length; category++)
+            for (ShipShape shape : ShipShape.distinct(ShipShape.CATEGORIES[category])) {
+                int[] offsets = shape.cellOffsets(GEOMETRY.getColumns());
+                for (int anchor = 0; anchor < expected.length; anchor++) {
+                    if (!shape.fits(GEOMETRY, GEOMETRY.row(anchor), GEOMETRY.column(anchor)))
+                        continue;
+                    boolean legal = true;
+                    for (int offset : offsets)
+                        legal &= !water.get(anchor + offset);
+                    if (legal)
+                        for (int offset : offsets)
+                            expected[anchor + offset] += floating[category];
+                }
+            }
+        for (int cell = 0; cell < expected.length; cell++)
+            assertEquals(expected[cell], shooter.densityAt(cell), "célula " + GEOMETRY.position(cell));
+    }
+}
@@ -0,0 +1,152 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe DiffRenderer")
+class DiffRendererTest {
+
+    private Fleet fleet;
+    private Game game;
+
+    @BeforeEach
+    void setUp() {
+        fleet = new Fleet();
+        fleet.addShip(new Caravel(Compass.EAST, Cell.of(0, 0)));
+        fleet.addShip(new Frigate(Compass.SOUTH, Cell.of(4, 4)));
+        fleet.addShip(new Barge(Compass.NORTH, Cell.of(9, 9)));
+        game = new Game(fleet);
+    }
+
+    private static byte[] water() {
+        byte[] board = new byte[BoardGeometry.STANDARD.getCellCount()];
+        Arrays.fill(board, (byte) BoardRenderer.WATER);
+        return board;
+    }
+
+    /**
+     * @return the board as drawn by a BoardRenderer, without line breaks
+     */
+    private byte[] expected(boolean showShips) {
+        BoardRenderer renderer = new BoardRenderer();
+        CharSequence board = showShips ? renderer.renderCombined(game, fleet)
+                : renderer.render(game.getGeometry(), game.getShots(), BoardRenderer.SHOT);
+        String text = board.toString().replace(System.lineSeparator(), "");
+        if (!showShips) {
+            StringBuilder shots = new StringBuilder(text);
+            for (IPosition p : game.getShots())
+                shots.setCharAt(game.getGeometry().cell(p.getRow(), p.getColumn()),
+                        fleet.shipAt(p) != null ? BoardRenderer.HIT : BoardRenderer.MISS);
+            text = shots.toString();
+        }
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    @DisplayName("Os espectadores acompanham o jogo só com as alterações")
+    void viewersFollowTheGame() {
+        DiffRenderer owner = new DiffRenderer(game, fleet, true);
+        DiffRenderer opponent = new DiffRenderer(game, fleet, false);
+        DiffRenderer.Viewer ownerView = new DiffRenderer.Viewer();
+        DiffRenderer.Viewer opponentView = new DiffRenderer.Viewer();
+        byte[] ownerBoard = water();
+        byte[] opponentBoard = water();
+
+        DiffRenderer.apply(owner.diff(ownerView), ownerBoard);
+        assertArrayEquals(expected(true), ownerBoard);
+        assertFalse(opponent.diff(opponentView).hasRemaining());
+
+        game.fire(Cell.of(0, 0));
+        game.fire(Cell.of(0, 1));
+        game.fire(Cell.of(3, 3));
+        owner.update();
+        opponent.update();
+
+        ByteBuffer runs = opponent.diff(opponentView);
+        assertEquals(2 * 3, runs.remaining()); // the two hits make a single run
+        DiffRenderer.apply(runs, opponentBoard);
+        assertArrayEquals(expected(false), opponentBoard);
+        DiffRenderer.apply(owner.diff(ownerView), ownerBoard);
+        assertArrayEquals(expected(true), ownerBoard);
+
+        assertFalse(owner.diff(ownerView).hasRemaining());
+        assertSame(owner.update(), ownerView.getLast());
+    }
+
+    @Test
+    @DisplayName("Um jogo parado não gera novas imagens e estas são partilhadas")
+    void framesAreShared() {
+        DiffRenderer renderer = new DiffRenderer(game, fleet, true);
+        DiffRenderer.Viewer[] viewers = new DiffRenderer.Viewer[1000];
+        for (int i = 0; i < viewers.length; i++) {
+            viewers[i] = new DiffRenderer.Viewer();
+            renderer.diff(viewers[i]);
+        }
+        DiffRenderer.Frame first = renderer.frame();
+        assertSame(first, renderer.update());
+
+        game.fire(Cell.of(5, 4));
+        DiffRenderer.Frame second = renderer.update();
+        assertNotSame(first, second);
+        assertEquals(first.getVersion() + 1, second.getVersion());
+        assertEquals(BoardRenderer.HIT, second.symbolAt(54));
+        assertEquals(BoardRenderer.SHIP, first.symbolAt(54));
+
+        ByteBuffer runs = renderer.diff(viewers[0]);
+        for (int i = 1; i < viewers.length; i++) {
+            ByteBuffer other = renderer.diff(viewers[i]);
+            assertEquals(runs, other);
+            assertSame(second, viewers[i].getLast());
+        }
+        assertEquals(ByteBuffer.wrap(new byte[]{54, 1, BoardRenderer.HIT}), runs);
+    }
+
+    @Test
+    @DisplayName("Uma frota refeita após reiniciar o jogo gera uma nova imagem")
+    void followsNewFleet() {
+        DiffRenderer renderer = new DiffRenderer(game, fleet, true);
+        DiffRenderer.Viewer viewer = new DiffRenderer.Viewer();
+        byte[] board = water();
+        DiffRenderer.apply(renderer.diff(viewer), board);
+
+        fleet.clear();
+        fleet.addShip(new Galleon(Compass.WEST, Cell.of(7, 2)));
+        game.reset();
+        DiffRenderer.Frame frame = renderer.update();
+        assertEquals(Zobrist.EMPTY, game.getHash());
+        assertNotSame(viewer.getLast(), frame);
+        DiffRenderer.apply(renderer.diff(viewer), board);
+        assertArrayEquals(expected(true), board);
+        assertSame(frame, renderer.update());
+    }
+
+    @Test
+    @DisplayName("As corridas ocupam só os bytes de que precisam")
+    void runsAreSizedToFit() {
+        DiffRenderer renderer = new DiffRenderer(game, fleet, true);
+        ByteBuffer runs = renderer.diff(new DiffRenderer.Viewer());
+        assertEquals(runs.capacity(), runs.remaining());
+
+        game.fire(Cell.of(9, 9));
+        renderer.update();
+        DiffRenderer.Viewer late = new DiffRenderer.Viewer();
+        runs = renderer.diff(late);
+        assertEquals(runs.capacity(), runs.remaining());
+        byte[] board = water();
+        DiffRenderer.apply(runs, board);
+        assertArrayEquals(expected(true), board);
+    }
+
+    @Test
+    @DisplayName("Corridas fora do tabuleiro são rejeitadas")
+    void rejectsBadRuns() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DiffRenderer.apply(ByteBuffer.wrap(new byte[]{99, 2, '*'}), water()));
+    }
+
+}
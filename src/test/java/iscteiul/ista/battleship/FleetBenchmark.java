@@ -0,0 +1,60 @@
+package iscteiul.ista.battleship;
+
+/**
+ * Measures the cost of Fleet.addShip and Fleet.shipAt as the fleet grows from
+ * 10 to 100 000 ships on a 1024x1024 board. Not a unit test: run it with
+ * <pre>
+ * mvn test-compile
+ * java -cp target/classes:target/test-classes iscteiul.ista.battleship.FleetBenchmark
+ * </pre>
+ */
+public class FleetBenchmark {
+    private static final int SIDE = 1024;
+    private static final int[] FLEET_SIZES = {10, 100, 1_000, 10_000, 100_000};
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        BoardGeometry geometry = new BoardGeometry(SIDE, SIDE, FLEET_SIZES[FLEET_SIZES.length - 1]);
+
+        System.out.printf("%10s %16s %16s%n", "ships", "addShip (ns)", "shipAt (ns)");
+        for (int round = 0; round < ROUNDS; round++)
+            for (int n : FLEET_SIZES) {
+                IShip[] ships = lattice(n);
+                Fleet fleet = new Fleet(geometry);
+
+                long start = System.nanoTime();
+                for (IShip s : ships)
+                    if (!fleet.addShip(s))
+                        throw new IllegalStateException("ERROR! rejected " + s);
+                long added = System.nanoTime() - start;
+
+                int found = 0;
+                start = System.nanoTime();
+                for (IShip s : ships) {
+                    IPosition p = s.getPosition();
+                    if (fleet.shipAt(geometry.cell(p.getRow(), p.getColumn())) == s)
+                        found++;
+                }
+                long looked = System.nanoTime() - start;
+                if (found != n)
+                    throw new IllegalStateException("ERROR! lookups failed");
+
+                if (round == ROUNDS - 1)
+                    System.out.printf("%10d %16.1f %16.1f%n", n, (double) added / n, (double) looked / n);
+            }
+    }
+
+    /**
+     * Alternates barges and east-facing caravels on a lattice with one free
+     * cell between neighbours
+     */
+    private static IShip[] lattice(int n) {
+        IShip[] ships = new IShip[n];
+        int perRow = SIDE / 3;
+        for (int i = 0; i < n; i++) {
+            IPosition pos = new Position(2 * (i / perRow), 3 * (i % perRow));
+            ships[i] = i % 2 == 0 ? new Barge(Compass.NORTH, pos) : new Caravel(Compass.EAST, pos);
+        }
+        return ships;
+    }
+}
@@ -0,0 +1,41 @@
+package iscteiul.ista.battleship;
+
+import java.util.SplittableRandom;
+
+/**
+ * Measures how many standard fleets FleetGenerator draws per second on one
+ * thread, with and without building the Fleet objects. Not a unit test: run it
+ * with
+ * <pre>
+ * mvn test-compile
+ * java -cp target/classes:target/test-classes iscteiul.ista.battleship.FleetGeneratorBenchmark
+ * </pre>
+ */
+public class FleetGeneratorBenchmark {
+    private static final int FLEETS = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        FleetGenerator generator = new FleetGenerator();
+        SplittableRandom random = new SplittableRandom(1);
+
+        System.out.printf("%8s %18s %18s%n", "round", "next (fleets/s)", "generate (fleets/s)");
+        for (int round = 1; round <= ROUNDS; round++) {
+            long checksum = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < FLEETS; i++) {
+                generator.next(random);
+                checksum += generator.anchorOf(0);
+            }
+            long sampled = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < FLEETS / 10; i++)
+                checksum += generator.generate(random).getShips().size();
+            long built = System.nanoTime() - start;
+
+            System.out.printf("%8d %18.0f %18.0f  (%d)%n", round, FLEETS * 1e9 / sampled,
+                    FLEETS / 10 * 1e9 / built, checksum);
+        }
+    }
+}
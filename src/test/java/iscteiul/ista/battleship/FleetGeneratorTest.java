@@ -0,0 +1,163 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe FleetGenerator")
+class FleetGeneratorTest {
+
+    private FleetGenerator generator;
+    private SplittableRandom random;
+
+    @BeforeEach
+    void setUp() {
+        generator = new FleetGenerator();
+        random = new SplittableRandom(7);
+    }
+
+    @Test
+    @DisplayName("generate produz a frota padrão completa e sem colisões")
+    void generatesLegalStandardFleets() {
+        for (int i = 0; i < 500; i++) {
+            IFleet fleet = generator.generate(random);
+            assertEquals(11, fleet.getShips().size());
+            assertEquals(4, fleet.getShipsLike("Barca").size());
+            assertEquals(3, fleet.getShipsLike("Caravela").size());
+            assertEquals(2, fleet.getShipsLike("Nau").size());
+            assertEquals(1, fleet.getShipsLike("Fragata").size());
+            assertEquals(1, fleet.getShipsLike("Galeao").size());
+            for (IShip a : fleet.getShips())
+                for (IShip b : fleet.getShips())
+                    if (a != b)
+                        assertFalse(a.tooCloseTo(b));
+        }
+    }
+
+    @Test
+    @DisplayName("generate produz frotas legais em tabuleiros maiores")
+    void generatesLegalFleetsOnLargerBoards() {
+        int[] doubled = {8, 6, 4, 2, 2};
+        for (int side : new int[]{20, 300}) {
+            FleetGenerator large = new FleetGenerator(new BoardGeometry(side, side, 22), doubled);
+            for (int i = 0; i < 20; i++)
+                assertEquals(22, large.generate(random).getShips().size());
+        }
+    }
+
+    @Test
+    @DisplayName("toFleet reproduz as formas e âncoras da última amostra")
+    void fleetMatchesSample() {
+        generator.next(random);
+        IFleet fleet = generator.toFleet();
+        BoardGeometry geometry = generator.getGeometry();
+
+        for (int i = 0; i < generator.getShipCount(); i++) {
+            IShip s = fleet.getShips().get(i);
+            IPosition anchor = geometry.position(generator.anchorOf(i));
+            assertEquals(generator.shapeOf(i).getCategory(), s.getCategory());
+            assertEquals(generator.bearingOf(i), s.getBearing());
+            assertEquals(anchor, s.getPosition());
+            for (int offset : generator.shapeOf(i).cellOffsets(geometry.getColumns()))
+                assertSame(s, fleet.shipAt(generator.anchorOf(i) + offset));
+        }
+    }
+
+    @Test
+    @DisplayName("A mesma semente gera a mesma sequência de frotas")
+    void sameSeedSameFleets() {
+        FleetGenerator other = new FleetGenerator();
+        SplittableRandom otherRandom = new SplittableRandom(7);
+        for (int i = 0; i < 100; i++) {
+            generator.next(random);
+            other.next(otherRandom);
+            for (int j = 0; j < generator.getShipCount(); j++) {
+                assertEquals(generator.anchorOf(j), other.anchorOf(j));
+                assertSame(generator.shapeOf(j), other.shapeOf(j));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Cada posição legal é sorteada com a mesma probabilidade")
+    void drawsAreUniform() {
+        // a caravel on a 2x3 board: 3 vertical and 4 horizontal placements
+        FleetGenerator small = new FleetGenerator(new BoardGeometry(2, 3, 1), new int[]{0, 1, 0, 0, 0});
+        int[] counts = new int[2 * 6];
+        int draws = 70_000;
+        for (int i = 0; i < draws; i++) {
+            small.next(random);
+            int vertical = small.shapeOf(0).getBearing() == Compass.NORTH
+                    || small.shapeOf(0).getBearing() == Compass.SOUTH ? 1 : 0;
+            counts[vertical * 6 + small.anchorOf(0)]++;
+        }
+
+        int[] expected = {1, 1, 0, 1, 1, 0, 1, 1, 1, 0, 0, 0};
+        for (int i = 0; i < counts.length; i++)
+            if (expected[i] == 0)
+                assertEquals(0, counts[i]);
+            else
+                assertEquals(draws / 7.0, counts[i], draws / 70.0);
+    }
+
+    @Test
+    @DisplayName("setBlocked impede que os navios ocupem as células bloqueadas")
+    void blockedCellsStayEmpty() {
+        BoardGeometry geometry = generator.getGeometry();
+        Bitboard blocked = new Bitboard(geometry.getCellCount());
+        for (int cell = 0; cell < geometry.getCellCount(); cell += 7)
+            blocked.set(cell);
+        generator.setBlocked(blocked);
+
+        for (int i = 0; i < 200; i++) {
+            generator.next(random);
+            for (int j = 0; j < generator.getShipCount(); j++)
+                for (int offset : generator.shapeOf(j).cellOffsets(geometry.getColumns()))
+                    assertFalse(blocked.get(generator.anchorOf(j) + offset));
+        }
+
+        generator.setBlocked(null);
+        generator.next(random);
+    }
+
+    @Test
+    @DisplayName("block e setComposition equivalem a reconstruir o gerador")
+    void blockingCellsOneByOne() {
+        BoardGeometry geometry = generator.getGeometry();
+        Bitboard blocked = new Bitboard(geometry.getCellCount());
+        int[] composition = {3, 2, 1, 1, 0};
+        FleetGenerator rebuilt = new FleetGenerator(geometry, composition);
+        generator.setComposition(composition);
+        for (int cell = 3; cell < geometry.getCellCount(); cell += 11) {
+            blocked.set(cell);
+            generator.block(cell);
+            generator.block(cell);
+        }
+        rebuilt.setBlocked(blocked);
+
+        SplittableRandom otherRandom = new SplittableRandom(7);
+        for (int i = 0; i < 100; i++) {
+            generator.next(random);
+            rebuilt.next(otherRandom);
+            assertEquals(7, generator.getShipCount());
+            for (int j = 0; j < generator.getShipCount(); j++) {
+                assertEquals(rebuilt.anchorOf(j), generator.anchorOf(j));
+                assertSame(rebuilt.shapeOf(j), generator.shapeOf(j));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Uma frota que não cabe no tabuleiro é rejeitada")
+    void impossibleFleets() {
+        FleetGenerator tooMany = new FleetGenerator(new BoardGeometry(2, 2, 10), new int[]{2, 0, 0, 0, 0});
+        assertThrows(IllegalStateException.class, () -> tooMany.next(random));
+        assertFalse(tooMany.next(random, System.nanoTime()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new FleetGenerator(BoardGeometry.STANDARD, new int[]{1, 1}));
+        assertThrows(IllegalArgumentException.class,
+                () -> new FleetGenerator(BoardGeometry.STANDARD, new int[]{-1, 0, 0, 0, 0}));
+    }
+}
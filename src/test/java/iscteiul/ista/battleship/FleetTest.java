@@ -3,6 +3,7 @@ package iscteiul.ista.battleship;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @DisplayName("Testes da classe Fleet")
@@ -44,6 +45,56 @@ class FleetTest {
     }
 
 
+    @Test
+    @DisplayName("addShip rejeita navios adjacentes na diagonal e aceita com uma célula de intervalo")
+    void addShipRespectsHalo() {
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(4, 4))));
+
+        assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(5, 5))));
+        assertFalse(fleet.addShip(new Caravel(Compass.EAST, new Position(3, 5))));
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(6, 6))));
+        assertTrue(fleet.addShip(new Caravel(Compass.NORTH, new Position(2, 2))));
+    }
+
+    @Test
+    @DisplayName("addShip concorda com Ship.tooCloseTo para todas as posições de uma caravela")
+    void addShipAgreesWithTooCloseTo() {
+        IShip galleon = new Galleon(Compass.SOUTH, new Position(3, 4));
+        for (Compass bearing : new Compass[]{Compass.NORTH, Compass.EAST})
+            for (int r = 0; r < Fleet.BOARD_SIZE; r++)
+                for (int c = 0; c < Fleet.BOARD_SIZE; c++) {
+                    Fleet f = new Fleet();
+                    f.addShip(galleon);
+                    IShip caravel = new Caravel(bearing, new Position(r, c));
+                    boolean inside = caravel.getBottomMostPos() < Fleet.BOARD_SIZE
+                            && caravel.getRightMostPos() < Fleet.BOARD_SIZE;
+
+                    assertEquals(inside && !galleon.tooCloseTo(caravel), f.addShip(caravel),
+                            "Erro: resultado inesperado para " + caravel);
+                }
+    }
+
+    @Test
+    @DisplayName("canPlace concorda com addShip sem construir navios")
+    void canPlaceAgreesWithAddShip() {
+        fleet.addShip(new Galleon(Compass.SOUTH, new Position(4, 5)));
+        fleet.addShip(new Frigate(Compass.EAST, new Position(0, 0)));
+
+        String[] kinds = {"barca", "caravela", "nau", "fragata", "galeao"};
+        for (String kind : kinds)
+            for (Compass bearing : new Compass[]{Compass.NORTH, Compass.SOUTH, Compass.EAST, Compass.WEST})
+                for (int r = -1; r <= Fleet.BOARD_SIZE; r++)
+                    for (int c = -1; c <= Fleet.BOARD_SIZE; c++) {
+                        Ship ship = Ship.buildShip(kind, bearing, new Position(r, c));
+                        ShipShape shape = ShipShape.of(ship.getCategory(), bearing);
+                        Fleet copy = new Fleet();
+                        for (IShip placed : fleet.getShips())
+                            copy.addShip(placed);
+
+                        assertEquals(copy.addShip(ship), fleet.canPlace(shape, r, c), ship.toString());
+                    }
+    }
+
     @Test
     @DisplayName("getFloatingShips devolve apenas navios flutuantes")
     void getFloatingShipsWorks() {
@@ -54,6 +105,33 @@ class FleetTest {
         assertEquals(1, list.size());
     }
 
+    @Test
+    @DisplayName("shoot atualiza os contadores de navios a flutuar e notifica o afundamento")
+    void shootUpdatesFloatingCountsAndListeners() {
+        IShip barge = new Barge(Compass.NORTH, new Position(0, 0));
+        IShip caravel = new Caravel(Compass.EAST, new Position(5, 5));
+        fleet.addShip(barge);
+        fleet.addShip(caravel);
+        List<IShip> sunk = new ArrayList<>();
+        fleet.addSinkListener(sunk::add);
+
+        assertEquals(2, fleet.getFloatingCount());
+        assertEquals(1, fleet.getFloatingCount(caravel.getCategory()));
+
+        assertSame(caravel, fleet.shoot(new Position(5, 5)));
+        assertNull(fleet.shoot(new Position(9, 9)));
+        assertEquals(2, fleet.getFloatingCount());
+        assertTrue(sunk.isEmpty());
+
+        fleet.shoot(new Position(5, 6));
+        assertEquals(1, fleet.getFloatingCount());
+        assertEquals(0, fleet.getFloatingCount(caravel.getCategory()));
+        assertEquals(1, fleet.getFloatingCount(barge.getCategory()));
+        assertEquals(0, fleet.getFloatingCount("Galeao"));
+        assertEquals(List.of(caravel), sunk);
+        assertEquals(fleet.getFloatingShips().size(), fleet.getFloatingCount());
+    }
+
     @Test
     @DisplayName("getShips devolve todos os navios")
     void getShipsReturnsAll() {
@@ -88,6 +166,21 @@ class FleetTest {
         assertNotNull(found);
     }
 
+    @Test
+    @DisplayName("shipAt distingue navios e devolve null em células livres ou fora do tabuleiro")
+    void shipAtFindsTheRightShip() {
+        IShip galleon = new Galleon(Compass.NORTH, new Position(0, 0));
+        IShip frigate = new Frigate(Compass.SOUTH, new Position(5, 8));
+        fleet.addShip(galleon);
+        fleet.addShip(frigate);
+
+        assertSame(galleon, fleet.shipAt(new Position(2, 1)));
+        assertSame(frigate, fleet.shipAt(new Position(8, 8)));
+        assertNull(fleet.shipAt(new Position(2, 0)));
+        assertNull(fleet.shipAt(new Position(-1, 0)));
+        assertNull(fleet.shipAt(new Position(0, Fleet.BOARD_SIZE)));
+    }
+
     @Test
     @DisplayName("Chamadas aos métodos de impressão não causam erro")
     void printMethodsRun() {
@@ -101,4 +194,46 @@ class FleetTest {
         fleet.printShipsByCategory("Barge");
         fleet.printStatus();
     }
+
+    @Test
+    @DisplayName("reset repara os navios e clear esvazia a frota")
+    void resetAndClear() {
+        IShip barge = new Barge(Compass.NORTH, new Position(3, 3));
+        fleet.addShip(barge);
+        fleet.addShip(new Caravel(Compass.EAST, new Position(6, 6)));
+        assertSame(barge, fleet.shoot(BoardGeometry.STANDARD.cell(3, 3)));
+        assertEquals(1, fleet.getFloatingCount());
+
+        fleet.reset();
+        assertTrue(barge.stillFloating());
+        assertEquals(2, fleet.getFloatingCount());
+        assertEquals(1, fleet.getFloatingCount("Barca"));
+
+        fleet.clear();
+        assertTrue(fleet.getShips().isEmpty());
+        assertEquals(0, fleet.getFloatingCount());
+        assertNull(fleet.shipAt(BoardGeometry.STANDARD.cell(3, 3)));
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(3, 4))));
+    }
+
+    @Test
+    @DisplayName("unshoot desfaz um tiro e volta a pôr a flutuar o navio afundado")
+    void unshootRefloatsShips() {
+        IShip caravel = new Caravel(Compass.NORTH, new Position(1, 1));
+        fleet.addShip(caravel);
+        BoardGeometry g = BoardGeometry.STANDARD;
+        fleet.shoot(g.cell(1, 1));
+        fleet.shoot(g.cell(2, 1));
+        assertEquals(0, fleet.getFloatingCount());
+
+        assertSame(caravel, fleet.unshoot(g.cell(2, 1)));
+        assertTrue(caravel.stillFloating());
+        assertEquals(1, caravel.hitCount());
+        assertEquals(1, fleet.getFloatingCount());
+        assertEquals(1, fleet.getFloatingCount("Caravela"));
+
+        assertSame(caravel, fleet.unshoot(g.cell(2, 1)));
+        assertEquals(1, fleet.getFloatingCount());
+        assertNull(fleet.unshoot(g.cell(5, 5)));
+    }
 }
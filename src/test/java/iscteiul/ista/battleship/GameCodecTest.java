@@ -0,0 +1,161 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe GameCodec")
+class GameCodecTest {
+
+    private Game game;
+
+    @BeforeEach
+    void setUp() {
+        SplittableRandom random = new SplittableRandom(23);
+        FleetGenerator generator = new FleetGenerator(BoardGeometry.STANDARD, FleetGenerator.STANDARD_FLEET);
+        Fleet fleet = new Fleet();
+        generator.next(random);
+        generator.fill(fleet);
+        game = new Game(fleet);
+
+        DensityShooter shooter = new DensityShooter();
+        shooter.newGame(BoardGeometry.STANDARD, random);
+        Simulator.play(game, shooter, 40);
+        game.fire(-1);
+        game.fire(Cell.of(10, 0));
+        game.fire(game.getShots().get(3));
+    }
+
+    @Test
+    @DisplayName("Um jogo 10x10 ocupa menos de 64 bytes e é reconstruído")
+    void roundTripsGames() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        GameCodec.encode(game, buffer);
+        assertEquals(43, buffer.position());
+
+        buffer.flip();
+        Game copy = GameCodec.decodeGame(buffer);
+        assertFalse(buffer.hasRemaining());
+        assertEquals(new HashSet<>(game.getShots()), new HashSet<>(copy.getShots()));
+        assertEquals(game.getShots().size(), copy.getShots().size());
+        assertEquals(game.getHits(), copy.getHits());
+        assertEquals(game.getSunkShips(), copy.getSunkShips());
+        assertEquals(2, copy.getInvalidShots());
+        assertEquals(1, copy.getRepeatedShots());
+        assertEquals(game.getRemainingShips(), copy.getRemainingShips());
+        assertEquals(game.getHash(), copy.getHash());
+    }
+
+    @Test
+    @DisplayName("Uma frota mantém categoria, orientação e âncora de cada navio")
+    void roundTripsFleets() {
+        Fleet fleet = new Fleet(new BoardGeometry(30, 40, 3));
+        fleet.addShip(new Galleon(Compass.EAST, Cell.of(20, 35)));
+        fleet.addShip(new Frigate(Compass.SOUTH, Cell.of(0, 0)));
+        fleet.addShip(new Barge(Compass.WEST, Cell.of(29, 39)));
+
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        GameCodec.encode(fleet, buffer);
+        buffer.flip();
+        Fleet copy = GameCodec.decodeFleet(buffer);
+
+        assertEquals(30, copy.getGeometry().getRows());
+        assertEquals(40, copy.getGeometry().getColumns());
+        assertEquals(fleet.getShips().size(), copy.getShips().size());
+        for (int i = 0; i < fleet.getShips().size(); i++) {
+            IShip s = fleet.getShips().get(i);
+            IShip t = copy.getShips().get(i);
+            assertEquals(s.getCategory(), t.getCategory());
+            assertEquals(s.getBearing(), t.getBearing());
+            assertEquals(s.getPositions(), t.getPositions());
+        }
+    }
+
+    @Test
+    @DisplayName("Dados corrompidos são rejeitados")
+    void rejectsBadInput() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        GameCodec.encode(game, buffer);
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+
+        byte[] badShip = bytes.clone();
+        badShip[4] = (byte) (7 << 3);
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decodeGame(ByteBuffer.wrap(badShip)));
+
+        byte[] badCount = bytes.clone();
+        badCount[bytes.length - 4]++;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decodeGame(ByteBuffer.wrap(badCount)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> GameCodec.getVarint(ByteBuffer.wrap(new byte[]{-1, -1, -1, -1, -1, 1})));
+    }
+
+    /**
+     * Encodes the game of the fixture with other invalid and repeated shot counts
+     */
+    private ByteBuffer withMisfires(int invalid, int repeated) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        GameCodec.encode(game, buffer);
+        buffer.position(buffer.position() - 2);
+        GameCodec.putVarint(buffer, invalid);
+        GameCodec.putVarint(buffer, repeated);
+        return buffer.flip();
+    }
+
+    @Test
+    @DisplayName("Contagens enormes de tiros inválidos e repetidos são repostas sem disparar um a um")
+    void restoresLargeMisfireCounts() {
+        int shots = game.getShots().size();
+        Game copy = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> GameCodec.decodeGame(withMisfires(200_000_000, 200_000_000)));
+        assertEquals(200_000_000, copy.getInvalidShots());
+        assertEquals(200_000_000, copy.getRepeatedShots());
+
+        int snapshot = copy.snapshot();
+        copy.fire(-1);
+        copy.restore(snapshot);
+        assertEquals(200_000_000, copy.getInvalidShots());
+        copy.restore(shots);
+        assertEquals(0, copy.getInvalidShots());
+        assertEquals(0, copy.getRepeatedShots());
+        assertEquals(shots, copy.getShots().size());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> GameCodec.decodeGame(withMisfires(Integer.MAX_VALUE - shots, 1)));
+    }
+
+    @Test
+    @DisplayName("Dados cortados a meio são rejeitados")
+    void rejectsTruncatedInput() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        GameCodec.encode(game, buffer);
+        int length = buffer.position();
+        for (int cut = 0; cut < length; cut++) {
+            ByteBuffer truncated = ByteBuffer.wrap(buffer.array(), 0, cut);
+            assertThrows(IllegalArgumentException.class, () -> GameCodec.decodeGame(truncated));
+        }
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decodeFleet(ByteBuffer.wrap(new byte[]{10, 10})));
+    }
+
+    @Test
+    @DisplayName("Os varints ocupam um byte por cada 7 bits")
+    void varints() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        for (int value : new int[]{0, 127, 128, 16383, 16384, Integer.MAX_VALUE}) {
+            buffer.clear();
+            GameCodec.putVarint(buffer, value);
+            int size = buffer.position();
+            buffer.flip();
+            assertEquals(value, GameCodec.getVarint(buffer));
+            assertEquals(Math.max(1, (38 - Integer.numberOfLeadingZeros(value)) / 7), size);
+            assertEquals(size, GameCodec.varintSize(value));
+        }
+    }
+
+}
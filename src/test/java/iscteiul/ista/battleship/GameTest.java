@@ -0,0 +1,262 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe Game")
+class GameTest {
+
+    private Fleet fleet;
+    private Game game;
+    private IShip caravel;
+
+    @BeforeEach
+    void setUp() {
+        fleet = new Fleet();
+        caravel = new Caravel(Compass.NORTH, new Position(1, 1));
+        fleet.addShip(caravel);
+        fleet.addShip(new Barge(Compass.NORTH, new Position(7, 7)));
+        game = new Game(fleet);
+    }
+
+    @Test
+    @DisplayName("Jogo novo começa sem tiros e com todos os navios")
+    void newGameState() {
+        assertTrue(game.getShots().isEmpty());
+        assertEquals(0, game.getHits());
+        assertEquals(0, game.getSunkShips());
+        assertEquals(2, game.getRemainingShips());
+    }
+
+    @Test
+    @DisplayName("fire conta acertos e devolve o navio apenas quando o afunda")
+    void fireCountsHitsAndSinks() {
+        assertNull(game.fire(new Position(0, 0)));
+        assertNull(game.fire(new Position(1, 1)));
+        assertEquals(1, game.getHits());
+        assertEquals(0, game.getSunkShips());
+
+        assertSame(caravel, game.fire(new Position(2, 1)));
+        assertEquals(2, game.getHits());
+        assertEquals(1, game.getSunkShips());
+        assertEquals(1, game.getRemainingShips());
+        assertEquals(3, game.getShots().size());
+    }
+
+    @Test
+    @DisplayName("fire conta tiros repetidos e inválidos sem os registar")
+    void fireCountsRepeatedAndInvalidShots() {
+        game.fire(new Position(1, 1));
+        game.fire(new Position(1, 1));
+        game.fire(new Position(-1, 3));
+
+        assertEquals(1, game.getRepeatedShots());
+        assertEquals(1, game.getInvalidShots());
+        assertEquals(1, game.getHits());
+        assertEquals(1, game.getShots().size());
+    }
+
+    @Test
+    @DisplayName("fire(int) usa o índice da célula e rejeita índices fora do tabuleiro")
+    void fireByCellIndex() {
+        game.fire(BoardGeometry.STANDARD.cell(1, 1));
+        assertSame(caravel, game.fire(BoardGeometry.STANDARD.cell(2, 1)));
+        game.fire(BoardGeometry.STANDARD.cell(2, 1));
+        game.fire(-1);
+        game.fire(Fleet.BOARD_SIZE * Fleet.BOARD_SIZE);
+
+        assertEquals(2, game.getHits());
+        assertEquals(1, game.getRepeatedShots());
+        assertEquals(2, game.getInvalidShots());
+    }
+
+    @Test
+    @DisplayName("Tiros na linha ou coluna BOARD_SIZE ficam fora do tabuleiro")
+    void shotsJustOutsideTheBoardAreInvalid() {
+        game.fire(new Position(Fleet.BOARD_SIZE, 0));
+        game.fire(new Position(0, Fleet.BOARD_SIZE));
+
+        assertEquals(2, game.getInvalidShots());
+        assertTrue(game.getShots().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Tiros repetidos são detetados com qualquer implementação de IPosition")
+    void repeatedShotsAcrossPositionTypes() {
+        game.fire(new Position(4, 4));
+        game.fire(Cell.of(4, 4));
+        game.fire(BoardGeometry.STANDARD.cell(4, 4));
+
+        assertEquals(2, game.getRepeatedShots());
+        assertEquals(List.of(Cell.of(4, 4)), game.getShots());
+    }
+
+    @Test
+    @DisplayName("reset recomeça o jogo com a mesma frota")
+    void resetRestartsTheGame() {
+        game.fire(new Position(1, 1));
+        game.fire(new Position(2, 1));
+        game.fire(new Position(2, 1));
+        game.fire(new Position(-1, 0));
+
+        game.reset();
+        assertTrue(game.getShots().isEmpty());
+        assertEquals(0, game.getHits());
+        assertEquals(0, game.getSunkShips());
+        assertEquals(0, game.getRepeatedShots());
+        assertEquals(0, game.getInvalidShots());
+        assertEquals(2, game.getRemainingShips());
+
+        assertNull(game.fire(new Position(1, 1)));
+        assertSame(caravel, game.fire(new Position(2, 1)));
+        assertEquals(1, game.getSunkShips());
+    }
+
+    @Test
+    @DisplayName("Tiros inválidos e repetidos são contados sem fazer crescer o diário")
+    void misfiresAreJournaledAsCounts() {
+        game.fire(new Position(0, 0));
+        for (int i = 0; i < 100_000; i++) {
+            game.fire(-1);
+            game.fire(0);
+        }
+        int snapshot = game.snapshot();
+        assertEquals(2, snapshot);
+
+        game.fire(-1);
+        game.fire(-1);
+        game.fire(0);
+        assertEquals(3, game.snapshot());
+        game.fire(-1);
+        assertEquals(100_003, game.getInvalidShots());
+        assertEquals(100_001, game.getRepeatedShots());
+
+        game.restore(snapshot);
+        assertEquals(100_000, game.getInvalidShots());
+        assertEquals(100_000, game.getRepeatedShots());
+        assertEquals(List.of(Cell.of(0, 0)), game.getShots());
+        game.restore(1);
+        assertEquals(0, game.getInvalidShots());
+        assertEquals(0, game.getRepeatedShots());
+    }
+
+    @Test
+    @DisplayName("restore desfaz os tiros feitos depois do snapshot")
+    void restoreUndoesLaterShots() {
+        game.fire(new Position(0, 0));
+        game.fire(new Position(1, 1));
+        int snapshot = game.snapshot();
+
+        game.fire(new Position(2, 1));
+        game.fire(new Position(2, 1));
+        game.fire(new Position(-1, 5));
+        game.fire(new Position(7, 7));
+        assertEquals(0, game.getRemainingShips());
+        assertEquals(2, game.getSunkShips());
+
+        game.restore(snapshot);
+        assertEquals(List.of(Cell.of(0, 0), Cell.of(1, 1)), game.getShots());
+        assertEquals(1, game.getHits());
+        assertEquals(0, game.getSunkShips());
+        assertEquals(0, game.getRepeatedShots());
+        assertEquals(0, game.getInvalidShots());
+        assertEquals(2, game.getRemainingShips());
+        assertTrue(caravel.stillFloating());
+        assertEquals(1, caravel.hitCount());
+
+        assertSame(caravel, game.fire(new Position(2, 1)));
+        game.restore(0);
+        assertTrue(game.getShots().isEmpty());
+        assertEquals(0, caravel.hitCount());
+        assertThrows(IllegalArgumentException.class, () -> game.restore(1));
+    }
+
+    @Test
+    @DisplayName("O hash de Zobrist não depende da ordem dos tiros e acompanha restore e reset")
+    void zobristHashFollowsTheShots() {
+        long empty = game.getHash();
+        assertEquals(Zobrist.EMPTY, empty);
+
+        game.fire(new Position(1, 1));
+        game.fire(new Position(5, 5));
+        long afterTwo = game.getHash();
+        int snapshot = game.snapshot();
+        game.fire(new Position(2, 1));
+        game.fire(new Position(2, 1));
+        game.fire(new Position(-1, 0));
+        long afterThree = game.getHash();
+
+        Fleet other = new Fleet();
+        other.addShip(new Caravel(Compass.NORTH, new Position(1, 1)));
+        other.addShip(new Barge(Compass.NORTH, new Position(7, 7)));
+        Game reordered = new Game(other);
+        reordered.fire(new Position(2, 1));
+        reordered.fire(new Position(5, 5));
+        reordered.fire(new Position(1, 1));
+        assertEquals(afterThree, reordered.getHash());
+        assertNotEquals(afterTwo, afterThree);
+
+        game.restore(snapshot);
+        assertEquals(afterTwo, game.getHash());
+        game.reset();
+        assertEquals(empty, game.getHash());
+    }
+
+    @Test
+    @DisplayName("fire em lote devolve um código por tiro")
+    void batchFireReportsCodes() {
+        BoardGeometry g = game.getGeometry();
+        int[] cells = {g.cell(0, 0), g.cell(1, 1), g.cell(1, 1), -1, g.cell(2, 1), g.cell(7, 7)};
+        byte[] results = new byte[cells.length];
+
+        game.fire(cells, results);
+        assertArrayEquals(new byte[]{IGame.MISS, IGame.HIT, IGame.REPEATED, IGame.INVALID, IGame.SUNK, IGame.SUNK},
+                results);
+        assertEquals(3, game.getHits());
+        assertEquals(2, game.getSunkShips());
+        assertEquals(1, game.getRepeatedShots());
+        assertEquals(1, game.getInvalidShots());
+        assertSame(caravel, game.sunkShipAt(g.cell(1, 1)));
+        assertNull(game.sunkShipAt(g.cell(0, 0)));
+        assertNull(game.sunkShipAt(-1));
+    }
+
+    @Test
+    @DisplayName("sunkShipAt só revela navios afundados")
+    void sunkShipAtHidesFloatingShips() {
+        BoardGeometry g = game.getGeometry();
+        game.fire(g.cell(1, 1));
+        assertNull(game.sunkShipAt(g.cell(1, 1)));
+        assertNull(game.sunkShipAt(g.cell(2, 1)));
+    }
+
+    @Test
+    @DisplayName("Os ouvintes recebem cada tiro e o seu resultado")
+    void shotListenersSeeEveryShot() {
+        BoardGeometry g = game.getGeometry();
+        List<String> seen = new ArrayList<>();
+        game.addShotListener((cell, result) -> seen.add(cell + ":" + result));
+
+        game.fire(new Position(1, 1));
+        game.fire(new Position(1, 1));
+        game.fire(new Position(-1, 5));
+        game.fire(g.cell(0, 0));
+        assertEquals(List.of(g.cell(1, 1) + ":" + IGame.HIT, g.cell(1, 1) + ":" + IGame.REPEATED,
+                "-1:" + IGame.INVALID, g.cell(0, 0) + ":" + IGame.MISS), seen);
+    }
+
+    @Test
+    @DisplayName("Um jogo só conta os navios afundados pelos seus tiros")
+    void sinksBelongToTheirGame() {
+        Game other = new Game(fleet);
+        IShip sunk = other.fire(new Position(7, 7));
+        assertNotNull(sunk);
+        assertEquals(1, other.getSunkShips());
+        assertEquals(0, game.getSunkShips());
+        assertEquals(0, game.getHits());
+    }
+}
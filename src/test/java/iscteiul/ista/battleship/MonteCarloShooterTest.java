@@ -0,0 +1,95 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe MonteCarloShooter")
+class MonteCarloShooterTest {
+
+    private static final BoardGeometry GEOMETRY = BoardGeometry.STANDARD;
+
+    @Test
+    @DisplayName("Ganha os jogos sem tiros repetidos e com menos tiros que ao acaso")
+    void winsGames() {
+        MonteCarloShooter shooter = new MonteCarloShooter(2);
+        FleetGenerator generator = new FleetGenerator();
+        SplittableRandom random = new SplittableRandom(5);
+        long shots = 0;
+        for (int i = 0; i < 5; i++) {
+            Game game = new Game(generator.generate(random));
+            shooter.newGame(GEOMETRY, random);
+            shots += Simulator.play(game, shooter, 2 * GEOMETRY.getCellCount());
+            assertEquals(0, game.getRemainingShips());
+            assertEquals(0, game.getRepeatedShots());
+            assertEquals(0, game.getInvalidShots());
+        }
+        assertTrue(shots / 5.0 < 80, "média de tiros: " + shots / 5.0);
+    }
+
+    /**
+     * Plays games with the shooter
+     *
+     * @return how long each move took, in nanoseconds
+     */
+    private static long[] timeMoves(IShooter shooter, int games, SplittableRandom random) {
+        FleetGenerator generator = new FleetGenerator();
+        long[] moves = new long[games * GEOMETRY.getCellCount()];
+        int count = 0;
+        for (int i = 0; i < games; i++) {
+            Game game = new Game(generator.generate(random));
+            shooter.newGame(GEOMETRY, random);
+            while (game.getRemainingShips() > 0) {
+                long start = System.nanoTime();
+                int cell = shooter.nextShot();
+                moves[count++] = System.nanoTime() - start;
+                IShip sunk = game.fire(cell);
+                shooter.shotResult(cell, game.getFleet().shipAt(cell) != null, sunk);
+            }
+        }
+        return Arrays.copyOf(moves, count);
+    }
+
+    @Test
+    @DisplayName("Todas as jogadas, do início ao fim do jogo, respeitam o prazo")
+    void movesMeetTheDeadline() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            MonteCarloShooter shooter = new MonteCarloShooter(FleetGenerator.STANDARD_FLEET, 10, pool);
+            SplittableRandom random = new SplittableRandom(1);
+            timeMoves(shooter, 2, random);
+            long[] moves = timeMoves(shooter, 4, random);
+            Arrays.sort(moves);
+            long p90 = moves[moves.length * 9 / 10] / 1_000_000;
+            long max = moves[moves.length - 1] / 1_000_000;
+            assertTrue(moves.length > 4 * 20);
+            assertTrue(p90 < 10, "percentil 90: " + p90 + " ms");
+            assertTrue(max < 20, "jogada mais longa: " + max + " ms");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Depois de acertar numa caravela dispara numa célula vizinha")
+    void samplesAreConsistentWithHits() {
+        MonteCarloShooter shooter = new MonteCarloShooter(new int[]{0, 1, 0, 0, 0}, 5, ForkJoinPool.commonPool());
+        shooter.newGame(GEOMETRY, new SplittableRandom(2));
+        shooter.shotResult(GEOMETRY.cell(5, 5), true, null);
+        shooter.shotResult(GEOMETRY.cell(4, 5), false, null);
+
+        int cell = shooter.nextShot();
+        assertTrue(cell == GEOMETRY.cell(6, 5) || cell == GEOMETRY.cell(5, 4) || cell == GEOMETRY.cell(5, 6),
+                "tiro em " + GEOMETRY.position(cell));
+    }
+
+    @Test
+    @DisplayName("O tempo por jogada tem de ser positivo")
+    void rejectsInvalidBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new MonteCarloShooter(0));
+    }
+}
@@ -0,0 +1,195 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe ReplayArchive")
+class ReplayArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    private Path log;
+    private Path index;
+
+    @BeforeEach
+    void setUp() {
+        log = dir.resolve("jogos.log");
+        index = dir.resolve("jogos.idx");
+    }
+
+    /**
+     * Logs games played by a random shooter, with an invalid shot first
+     */
+    private List<Game> logGames(int games, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        FleetGenerator generator = new FleetGenerator(BoardGeometry.STANDARD, FleetGenerator.STANDARD_FLEET);
+        List<Game> played = new ArrayList<>();
+        try (ReplayLog replayLog = new ReplayLog(log)) {
+            for (int i = 0; i < games; i++) {
+                Fleet fleet = new Fleet();
+                generator.next(random);
+                generator.fill(fleet);
+                Game game = new Game(fleet);
+                replayLog.record(fleet, game);
+
+                game.fire(-1);
+                RandomShooter shooter = new RandomShooter();
+                shooter.newGame(BoardGeometry.STANDARD, random);
+                Simulator.play(game, shooter, random.nextInt(BoardGeometry.STANDARD.getCellCount()));
+                played.add(game);
+            }
+        }
+        return played;
+    }
+
+    private static void assertSameGame(Game expected, Game actual) {
+        assertEquals(expected.getShots(), actual.getShots());
+        assertEquals(expected.getHits(), actual.getHits());
+        assertEquals(expected.getSunkShips(), actual.getSunkShips());
+        assertEquals(expected.getInvalidShots(), actual.getInvalidShots());
+        assertEquals(expected.getHash(), actual.getHash());
+    }
+
+    @Test
+    @DisplayName("Salta para qualquer jogo, em qualquer ordem")
+    void seeksToAnyGame() throws IOException {
+        List<Game> played = logGames(100, 3);
+        try (ReplayArchive archive = new ReplayArchive(log, null, 1 << 12)) {
+            assertEquals(played.size(), archive.getGameCount());
+            for (int n = played.size() - 1; n >= 0; n -= 3)
+                assertSameGame(played.get(n), archive.replay(n));
+            for (int n = 0; n < played.size(); n++)
+                assertSameGame(played.get(n), archive.replay(n));
+
+            assertThrows(IndexOutOfBoundsException.class, () -> archive.replay(played.size()));
+            assertThrows(IndexOutOfBoundsException.class, () -> archive.replay(-1));
+        }
+    }
+
+    @Test
+    @DisplayName("Reconstrói um jogo até ao tiro K")
+    void seeksToAnyShot() throws IOException {
+        List<Game> played = logGames(10, 5);
+        try (ReplayArchive archive = new ReplayArchive(log)) {
+            Game full = played.get(4);
+            Game none = archive.replay(4, 0);
+            assertEquals(0, none.getShots().size());
+            assertEquals(0, none.getInvalidShots());
+            assertEquals(Fleet.FLEET_SIZE + 1, none.getRemainingShips());
+
+            Game first = archive.replay(4, 1);
+            assertEquals(1, first.getInvalidShots());
+            assertEquals(0, first.getShots().size());
+
+            int valid = full.getShots().size();
+            Game partial = archive.replay(4, 1 + valid / 2);
+            assertEquals(full.getShots().subList(0, valid / 2), partial.getShots());
+            assertSameGame(full, archive.replay(4, 1 + valid));
+            assertSameGame(full, archive.replay(4, Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    @DisplayName("Os registos são lidos no próprio mapeamento")
+    void recordsAreReadOnlySlices() throws IOException {
+        logGames(3, 7);
+        try (ReplayArchive archive = new ReplayArchive(log)) {
+            ByteBuffer records = archive.records(1);
+            assertTrue(records.isReadOnly());
+            assertTrue(records.isDirect());
+            assertEquals(0, records.position());
+            assertEquals(ReplayLog.GAME, records.get(0));
+            assertEquals(0, records.remaining() % ReplayLog.RECORD_SIZE);
+        }
+    }
+
+    @Test
+    @DisplayName("O índice é guardado, reutilizado e refeito quando o registo cresce")
+    void indexFile() throws IOException {
+        List<Game> played = logGames(40, 11);
+        try (ReplayArchive archive = new ReplayArchive(log, index)) {
+            assertEquals(40, archive.getGameCount());
+        }
+        assertTrue(Files.exists(index));
+        long indexSize = Files.size(index);
+
+        try (ReplayArchive archive = new ReplayArchive(log, index)) {
+            assertEquals(40, archive.getGameCount());
+            assertSameGame(played.get(33), archive.replay(33));
+        }
+
+        played.addAll(logGames(25, 13));
+        try (ReplayArchive archive = new ReplayArchive(log, index)) {
+            assertEquals(65, archive.getGameCount());
+            assertSameGame(played.get(64), archive.replay(64));
+        }
+        assertTrue(Files.size(index) > indexSize);
+    }
+
+    @Test
+    @DisplayName("O índice é refeito quando o registo muda sem mudar de tamanho")
+    void indexFileOfARewrittenLog() throws IOException {
+        List<Game> played = logGames(20, 17);
+        try (ReplayArchive archive = new ReplayArchive(log, index)) {
+            assertEquals(20, archive.getGameCount());
+        }
+
+        // moves the first game to the end: same length, other boundaries
+        byte[] bytes = Files.readAllBytes(log);
+        int first;
+        try (ReplayArchive archive = new ReplayArchive(log)) {
+            first = archive.records(0).remaining();
+        }
+        byte[] rotated = new byte[bytes.length];
+        System.arraycopy(bytes, first, rotated, 0, bytes.length - first);
+        System.arraycopy(bytes, 0, rotated, bytes.length - first, first);
+        Files.write(log, rotated);
+
+        try (ReplayArchive archive = new ReplayArchive(log, index)) {
+            assertEquals(20, archive.getGameCount());
+            assertSameGame(played.get(1), archive.replay(0));
+            assertSameGame(played.get(0), archive.replay(19));
+        }
+    }
+
+    @Test
+    @DisplayName("Um índice que não corresponde ao registo é detetado")
+    void staleIndexIsReported() throws IOException {
+        logGames(5, 19);
+        try (ReplayArchive archive = new ReplayArchive(log, index)) {
+            assertEquals(5, archive.getGameCount());
+        }
+
+        // points the third game at the record after its start
+        byte[] bytes = Files.readAllBytes(index);
+        ByteBuffer entries = ByteBuffer.wrap(bytes);
+        int third = bytes.length - 4 * Long.BYTES;
+        entries.putLong(third, entries.getLong(third) + (1L << 24));
+        Files.write(index, bytes);
+
+        try (ReplayArchive archive = new ReplayArchive(log, index)) {
+            assertThrows(IllegalStateException.class, () -> archive.replay(2));
+        }
+    }
+
+    @Test
+    @DisplayName("Um arquivo vazio não tem jogos")
+    void emptyArchive() throws IOException {
+        Files.createFile(log);
+        try (ReplayArchive archive = new ReplayArchive(log)) {
+            assertEquals(0, archive.getGameCount());
+        }
+    }
+
+}
@@ -0,0 +1,244 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes das classes ReplayLog e Replayer")
+class ReplayLogTest {
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        file = dir.resolve("jogos.log");
+    }
+
+    /**
+     * Logs a number of games played by a density shooter, with an invalid and
+     * a repeated shot in each, and returns them
+     */
+    private List<Game> logGames(int games, int groupRecords) throws IOException {
+        SplittableRandom random = new SplittableRandom(17);
+        FleetGenerator generator = new FleetGenerator(BoardGeometry.STANDARD, FleetGenerator.STANDARD_FLEET);
+        List<Game> played = new ArrayList<>();
+        try (ReplayLog log = new ReplayLog(file, groupRecords)) {
+            for (int i = 0; i < games; i++) {
+                Fleet fleet = new Fleet();
+                generator.next(random);
+                generator.fill(fleet);
+                Game game = new Game(fleet);
+                log.record(fleet, game);
+
+                game.fire(Cell.of(-1, 3));
+                DensityShooter shooter = new DensityShooter();
+                shooter.newGame(BoardGeometry.STANDARD, random);
+                Simulator.play(game, shooter, 2 * BoardGeometry.STANDARD.getCellCount());
+                game.fire(game.getShots().get(0));
+                played.add(game);
+            }
+        }
+        return played;
+    }
+
+    private static void assertSameGame(Game expected, Game actual) {
+        assertEquals(expected.getShots(), actual.getShots());
+        assertEquals(expected.getHits(), actual.getHits());
+        assertEquals(expected.getSunkShips(), actual.getSunkShips());
+        assertEquals(expected.getInvalidShots(), actual.getInvalidShots());
+        assertEquals(expected.getRepeatedShots(), actual.getRepeatedShots());
+        assertEquals(expected.getRemainingShips(), actual.getRemainingShips());
+        assertEquals(expected.getHash(), actual.getHash());
+    }
+
+    @Test
+    @DisplayName("Os jogos reconstruídos são iguais aos registados")
+    void replaysGames() throws IOException {
+        List<Game> played = logGames(20, 7);
+        assertEquals(0, Files.size(file) % ReplayLog.RECORD_SIZE);
+
+        try (Replayer replayer = new Replayer(file)) {
+            for (Game game : played) {
+                assertTrue(replayer.nextGame());
+                assertSameGame(game, replayer.getGame());
+                assertEquals(Fleet.FLEET_SIZE + 1, replayer.getFleet().getShips().size());
+            }
+            assertFalse(replayer.nextGame());
+            assertEquals(played.size(), replayer.getGameCount());
+        }
+    }
+
+    @Test
+    @DisplayName("O registo acrescenta ao ficheiro e lê-se também a partir de memória")
+    void appendsAndReplaysBuffers() throws IOException {
+        List<Game> played = logGames(3, ReplayLog.GROUP_RECORDS);
+        played.addAll(logGames(2, 1));
+
+        Replayer replayer = new Replayer(ByteBuffer.wrap(Files.readAllBytes(file)));
+        for (Game game : played) {
+            assertTrue(replayer.nextGame());
+            assertSameGame(game, replayer.getGame());
+        }
+        assertFalse(replayer.nextGame());
+    }
+
+    @Test
+    @DisplayName("Um registo cortado a meio é ignorado")
+    void ignoresTornRecord() throws IOException {
+        List<Game> played = logGames(2, 5);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{ReplayLog.SHOT, 0, 0}));
+        }
+
+        try (Replayer replayer = new Replayer(file)) {
+            assertTrue(replayer.nextGame());
+            assertTrue(replayer.nextGame());
+            assertSameGame(played.get(1), replayer.getGame());
+            assertFalse(replayer.nextGame());
+        }
+    }
+
+    @Test
+    @DisplayName("Um registo cortado a meio é retirado antes de se acrescentar ao ficheiro")
+    void appendsAfterTornRecord() throws IOException {
+        List<Game> played = logGames(1, 5);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        played.addAll(logGames(1, 5));
+        assertEquals(0, Files.size(file) % ReplayLog.RECORD_SIZE);
+
+        try (Replayer replayer = new Replayer(file)) {
+            assertTrue(replayer.nextGame());
+            assertEquals(played.get(0).getShots().subList(0, replayer.getGame().getShots().size()),
+                    replayer.getGame().getShots());
+            assertTrue(replayer.nextGame());
+            assertSameGame(played.get(1), replayer.getGame());
+            assertFalse(replayer.nextGame());
+        }
+    }
+
+    @Test
+    @DisplayName("Só os tiros do jogo registado por último entram no registo")
+    void logsOnlyTheCurrentGame() throws IOException {
+        Fleet first = new Fleet();
+        first.addShip(new Barge(Compass.NORTH, Cell.of(0, 0)));
+        Fleet second = new Fleet();
+        second.addShip(new Barge(Compass.NORTH, Cell.of(0, 1)));
+        Game g1 = new Game(first);
+        Game g2 = new Game(second);
+        try (ReplayLog log = new ReplayLog(file)) {
+            log.record(first, g1);
+            g1.fire(0);
+            log.record(second, g2);
+            g1.fire(1);
+            g2.fire(1);
+        }
+        g2.fire(2);
+
+        try (Replayer replayer = new Replayer(file)) {
+            assertTrue(replayer.nextGame());
+            assertEquals(List.of(Cell.of(0, 0)), replayer.getGame().getShots());
+            assertTrue(replayer.nextGame());
+            assertEquals(List.of(Cell.of(0, 1)), replayer.getGame().getShots());
+            assertEquals(1, replayer.getGame().getSunkShips());
+            assertFalse(replayer.nextGame());
+        }
+    }
+
+    @Test
+    @DisplayName("Cada reinício do jogo abre um novo jogo no registo")
+    void resetStartsANewGame() throws IOException {
+        FleetGenerator generator = new FleetGenerator();
+        Fleet fleet = new Fleet();
+        generator.next(new SplittableRandom(3));
+        generator.fill(fleet);
+        Game game = new Game(fleet);
+        try (ReplayLog log = new ReplayLog(file)) {
+            log.record(fleet, game);
+            for (int cell = 0; cell < 30; cell++)
+                game.fire(cell);
+            game.reset();
+            for (int cell = 0; cell < 30; cell++)
+                game.fire(cell);
+            game.fire(0);
+        }
+
+        try (Replayer replayer = new Replayer(file)) {
+            assertTrue(replayer.nextGame());
+            assertEquals(30, replayer.getGame().getShots().size());
+            assertEquals(0, replayer.getGame().getRepeatedShots());
+            assertTrue(replayer.nextGame());
+            assertSameGame(game, replayer.getGame());
+            assertFalse(replayer.nextGame());
+        }
+    }
+
+    @Test
+    @DisplayName("Um grupo que espera demasiado é gravado com o registo seguinte")
+    void commitsGroupsThatWaitTooLong() throws IOException, InterruptedException {
+        Fleet fleet = new Fleet();
+        fleet.addShip(new Barge(Compass.NORTH, Cell.of(5, 5)));
+        Game game = new Game(fleet);
+        try (ReplayLog log = new ReplayLog(file, ReplayLog.GROUP_RECORDS, 1)) {
+            log.record(fleet, game);
+            game.fire(0);
+            assertEquals(0, Files.size(file));
+            Thread.sleep(5);
+            game.fire(1);
+            assertEquals(3 * ReplayLog.RECORD_SIZE, Files.size(file));
+        }
+        assertEquals(4 * ReplayLog.RECORD_SIZE, Files.size(file));
+    }
+
+    @Test
+    @DisplayName("Tabuleiros até 65535 linhas são registados e os maiores são recusados")
+    void checksDimensions() throws IOException {
+        Fleet wide = new Fleet(new BoardGeometry(2, 40_000, 1));
+        wide.addShip(new Barge(Compass.NORTH, Cell.of(1, 39_999)));
+        Game game = new Game(wide);
+        Fleet huge = new Fleet(new BoardGeometry(1024, 1024, 100_000));
+        try (ReplayLog log = new ReplayLog(file)) {
+            assertThrows(IllegalArgumentException.class, () -> log.record(huge, new Game(huge)));
+            log.record(wide, game);
+            game.fire(79_999);
+        }
+
+        try (Replayer replayer = new Replayer(file)) {
+            assertTrue(replayer.nextGame());
+            assertEquals(40_000, replayer.getFleet().getGeometry().getColumns());
+            assertEquals(1, replayer.getGame().getSunkShips());
+            assertFalse(replayer.nextGame());
+        }
+    }
+
+    @Test
+    @DisplayName("Um tiro com outro resultado é detetado")
+    void detectsTampering() throws IOException {
+        logGames(1, 3);
+        byte[] bytes = Files.readAllBytes(file);
+        int shot = (Fleet.FLEET_SIZE + 2) * ReplayLog.RECORD_SIZE;
+        assertEquals(ReplayLog.SHOT, bytes[shot]);
+        assertEquals(IGame.INVALID, bytes[shot + 1]);
+        bytes[shot + 1] = IGame.MISS;
+
+        Replayer replayer = new Replayer(ByteBuffer.wrap(bytes));
+        assertThrows(IllegalStateException.class, replayer::nextGame);
+        assertThrows(IllegalStateException.class, () -> new Replayer(ByteBuffer.wrap(new byte[8])).nextGame());
+    }
+
+}
@@ -0,0 +1,71 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe ShipShape")
+class ShipShapeTest {
+
+    private static final Compass[] BEARINGS = {Compass.NORTH, Compass.SOUTH, Compass.EAST, Compass.WEST};
+
+    @Test
+    @DisplayName("Há uma forma para cada categoria e direção válida")
+    void everyCategoryHasFourBearings() {
+        for (String category : ShipShape.CATEGORIES)
+            for (Compass bearing : BEARINGS) {
+                ShipShape shape = ShipShape.of(category, bearing);
+                assertNotNull(shape, category + " " + bearing);
+                assertEquals(ShipShape.categoryIndex(category) + 1, shape.getSize());
+                assertEquals(category, shape.getCategory());
+                assertEquals(bearing, shape.getBearing());
+            }
+        assertNull(ShipShape.of("Caravela", Compass.UNKNOWN));
+        assertNull(ShipShape.of("Submarino", Compass.NORTH));
+        assertEquals(-1, ShipShape.categoryIndex("Submarino"));
+    }
+
+    @Test
+    @DisplayName("Os navios construídos seguem a forma da sua categoria e direção")
+    void shipsFollowTheirShape() {
+        String[] kinds = {"barca", "caravela", "nau", "fragata", "galeao"};
+        for (String kind : kinds)
+            for (Compass bearing : BEARINGS) {
+                Ship ship = Ship.buildShip(kind, bearing, new Position(4, 4));
+                ShipShape shape = ShipShape.of(ship.getCategory(), bearing);
+
+                assertEquals(shape.getSize(), ship.getPositions().size());
+                for (int i = 0; i < shape.getSize(); i++)
+                    assertEquals(new Position(4 + shape.rowOffset(i), 4 + shape.columnOffset(i)),
+                            ship.getPositions().get(i), ship + " posição " + i);
+                assertEquals(4 + shape.getTop(), ship.getTopMostPos());
+                assertEquals(4 + shape.getBottom(), ship.getBottomMostPos());
+                assertEquals(4 + shape.getLeft(), ship.getLeftMostPos());
+                assertEquals(4 + shape.getRight(), ship.getRightMostPos());
+            }
+    }
+
+    @Test
+    @DisplayName("cellOffsets e fits correspondem às células no tabuleiro")
+    void cellOffsetsAndFits() {
+        BoardGeometry g = BoardGeometry.STANDARD;
+        ShipShape shape = ShipShape.of("Galeao", Compass.EAST);
+
+        assertArrayEquals(new int[]{0, 8, 9, 10, 20}, shape.cellOffsets(g.getColumns()));
+        assertTrue(shape.fits(g, 7, 2));
+        assertFalse(shape.fits(g, 8, 2));
+        assertFalse(shape.fits(g, 0, 1));
+    }
+
+    @Test
+    @DisplayName("distinct junta as direções que ocupam as mesmas células")
+    void distinctShapes() {
+        assertEquals(1, ShipShape.distinct("Barca").length);
+        assertEquals(2, ShipShape.distinct("Caravela").length);
+        assertEquals(2, ShipShape.distinct("Fragata").length);
+        assertEquals(4, ShipShape.distinct("Galeao").length);
+        assertTrue(ShipShape.of("Nau", Compass.NORTH).sameCells(ShipShape.of("Nau", Compass.SOUTH)));
+        assertFalse(ShipShape.of("Nau", Compass.NORTH).sameCells(ShipShape.of("Nau", Compass.EAST)));
+        assertEquals(0, ShipShape.distinct("Submarino").length);
+    }
+}
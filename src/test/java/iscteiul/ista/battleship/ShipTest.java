@@ -155,13 +155,13 @@ class ShipTest {
         // ---------- stillFloating: cover all if/loop branches (decision/branch coverage) ----------
         @Test
         void stillFloating_allHit() {
-            for (IPosition p : ship.getPositions()) p.shoot();
+            for (IPosition p : ship.getPositions()) ship.shoot(p);
             assertFalse(ship.stillFloating(), "Error: ship should not be floating after all positions are hit");
         }
 
         @Test
         void stillFloating_someUnhit() {
-            ship.getPositions().get(0).shoot();
+            ship.shoot(ship.getPositions().get(0));
             // Loop enters, loop breaks when finding unhit position (true branch)
             assertTrue(ship.stillFloating(), "Error: ship should still float if at least one position unhit");
         }
@@ -248,6 +248,24 @@ class ShipTest {
         }
 
 
+        @Test
+        void boundingBox_cachedAndRefreshedWhenPositionsAreAdded() {
+            assertAll(
+                    () -> assertEquals(2, ship.getTopMostPos()),
+                    () -> assertEquals(2, ship.getBottomMostPos()),
+                    () -> assertEquals(3, ship.getLeftMostPos()),
+                    () -> assertEquals(4, ship.getRightMostPos())
+            );
+
+            ship.getPositions().add(new Position(4, 1));
+            assertAll("Error: bounding box should include the position added after the first query",
+                    () -> assertEquals(2, ship.getTopMostPos()),
+                    () -> assertEquals(4, ship.getBottomMostPos()),
+                    () -> assertEquals(1, ship.getLeftMostPos()),
+                    () -> assertEquals(4, ship.getRightMostPos())
+            );
+        }
+
         // ---------- occupies: true, false, null assertion ----------
         @Test
         void occupies_trueWhenPositionMatch() {
@@ -305,7 +323,7 @@ class ShipTest {
             IPosition p = new Position(2, 3);
             ship.shoot(p);
             // Internal loop finds match (branch true)
-            assertTrue(ship.getPositions().get(0).isHit(), "Error: position (2,3) should be marked as hit");
+            assertEquals(0b01L, ship.damageMask(), "Error: position (2,3) should be marked as hit");
         }
 
         @Test
@@ -314,11 +332,79 @@ class ShipTest {
             ship.shoot(p);
             // Internal loop does not find match (branch false)
             assertAll(
-                    () -> assertFalse(ship.getPositions().get(0).isHit(), "Error: non-matching pos should remain unhit"),
-                    () -> assertFalse(ship.getPositions().get(1).isHit(), "Error: non-matching pos should remain unhit")
+                    () -> assertEquals(0L, ship.damageMask(), "Error: non-matching pos should remain unhit"),
+                    () -> assertEquals(0, ship.hitCount(), "Error: a miss should not count as a hit")
             );
         }
 
+        @Test
+        void shoot_updatesHitCountAndDamageMask() {
+            ship.shoot(new Position(2, 4));
+            ship.shoot(new Position(2, 4)); // repeated shot is not counted twice
+            assertAll(
+                    () -> assertEquals(1, ship.hitCount(), "Error: expected a single hit"),
+                    () -> assertEquals(0b10L, ship.damageMask(), "Error: expected only the second position damaged")
+            );
+
+            ship.shoot(new Position(2, 3));
+            assertAll(
+                    () -> assertEquals(2, ship.hitCount(), "Error: expected both positions hit"),
+                    () -> assertEquals(0b11L, ship.damageMask(), "Error: expected both positions damaged"),
+                    () -> assertFalse(ship.stillFloating(), "Error: ship should be sunk")
+            );
+        }
+
+        @Test
+        void repair_clearsDamage() {
+            ship.shoot(new Position(2, 3));
+            ship.shoot(new Position(2, 4));
+            ship.repair();
+            assertAll(
+                    () -> assertEquals(0, ship.hitCount(), "Error: a repaired ship has no hits"),
+                    () -> assertEquals(0L, ship.damageMask(), "Error: a repaired ship has no damage"),
+                    () -> assertTrue(ship.stillFloating(), "Error: a repaired ship should float")
+            );
+        }
+
+        @Test
+        void repair_undoesOneHit() {
+            ship.shoot(new Position(2, 3));
+            ship.shoot(new Position(2, 4));
+            ship.repair(2, 4);
+            ship.repair(2, 4); // repairing an intact position changes nothing
+            assertAll(
+                    () -> assertEquals(1, ship.hitCount(), "Error: only one hit should remain"),
+                    () -> assertEquals(0b01L, ship.damageMask(), "Error: expected only the first position damaged"),
+                    () -> assertTrue(ship.stillFloating(), "Error: ship should float again")
+            );
+        }
+
+        // ---------- positions of a real ship keep their state in the ship ----------
+        @Test
+        void positions_reportTheStateOfTheShip() {
+            Ship caravel = new Caravel(Compass.EAST, new Position(4, 4));
+            IPosition first = caravel.getPositions().get(0);
+            IPosition second = caravel.getPositions().get(1);
+            assertFalse(first.isHit());
+            assertFalse(first.isOccupied());
+
+            caravel.shoot(new Position(4, 4));
+            assertTrue(first.isHit());
+            assertFalse(second.isHit());
+            second.shoot();
+            assertTrue(second.isHit());
+            assertFalse(caravel.stillFloating());
+            assertEquals(0b11, caravel.damageMask());
+
+            caravel.repair();
+            assertFalse(first.isHit());
+            first.occupy();
+            assertTrue(first.isOccupied());
+            assertFalse(second.isOccupied());
+            assertEquals(new Position(4, 5), second);
+            assertEquals(Cell.of(4, 5).hashCode(), second.hashCode());
+        }
+
         @Test
         void shoot_nullThrows() {
             assertThrows(AssertionError.class, () -> ship.shoot(null), "Error: expected AssertionError when calling shoot(null)");
@@ -0,0 +1,51 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe Simulator")
+class SimulatorTest {
+
+    @Test
+    @DisplayName("RandomShooter nunca repete um tiro e ganha todos os jogos")
+    void randomShooterWinsEveryGame() {
+        SimulationStats stats = new Simulator(RandomShooter::new).run(1000, 42);
+
+        assertEquals(1000, stats.getGames());
+        assertEquals(1000, stats.getWins());
+        assertEquals(0, stats.getRepeatedShots());
+        assertEquals(0, stats.getInvalidShots());
+        assertEquals(1000L * 25, stats.getHits());
+        assertTrue(stats.getMinShots() >= 25);
+        assertTrue(stats.getMaxShots() <= 100);
+    }
+
+    @Test
+    @DisplayName("A mesma semente dá o mesmo resultado com qualquer número de threads")
+    void resultsAreReproducible() {
+        BoardGeometry geometry = BoardGeometry.STANDARD;
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(4);
+        try {
+            SimulationStats a = new Simulator(geometry, FleetGenerator.STANDARD_FLEET, RandomShooter::new, single)
+                    .run(3 * Simulator.BATCH + 5, 123);
+            SimulationStats b = new Simulator(geometry, FleetGenerator.STANDARD_FLEET, RandomShooter::new, many)
+                    .run(3 * Simulator.BATCH + 5, 123);
+            assertEquals(a.toString(), b.toString());
+            assertEquals(a.getShots(), b.getShots());
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("A composição da frota deve indicar uma quantidade por categoria")
+    void rejectsBadComposition() {
+        assertThrows(IllegalArgumentException.class, () -> new Simulator(BoardGeometry.STANDARD, new int[]{1, 2},
+                RandomShooter::new, ForkJoinPool.commonPool()));
+    }
+}
@@ -0,0 +1,59 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe SpatialIndex")
+class SpatialIndexTest {
+
+    private SpatialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SpatialIndex(new BoardGeometry(30, 30, 10));
+    }
+
+    @Test
+    @DisplayName("shipAt encontra navios que atravessam fronteiras entre baldes")
+    void shipAtAcrossBucketBoundaries() {
+        int edge = SpatialIndex.BUCKET - 1;
+        IShip frigate = new Frigate(Compass.EAST, new Position(edge, edge - 1));
+        IShip galleon = new Galleon(Compass.SOUTH, new Position(edge - 1, 2 * SpatialIndex.BUCKET + 1));
+        index.add(frigate);
+        index.add(galleon);
+
+        for (IPosition p : frigate.getPositions())
+            assertSame(frigate, index.shipAt(p.getRow(), p.getColumn()));
+        for (IPosition p : galleon.getPositions())
+            assertSame(galleon, index.shipAt(p.getRow(), p.getColumn()));
+    }
+
+    @Test
+    @DisplayName("shipAt devolve null dentro da caixa envolvente mas fora do navio")
+    void shipAtInsideBoundingBoxButNotOnShip() {
+        IShip galleon = new Galleon(Compass.NORTH, new Position(10, 10));
+        index.add(galleon);
+
+        assertNull(index.shipAt(11, 10));
+        assertNull(index.shipAt(29, 29));
+        assertSame(galleon, index.shipAt(12, 11));
+    }
+
+    @Test
+    @DisplayName("clear esquece os navios e o índice volta a ser usado")
+    void clearForgetsShips() {
+        IShip barge = new Barge(Compass.NORTH, new Position(3, 3));
+        IShip caravel = new Caravel(Compass.EAST, new Position(5, 3));
+        index.add(barge);
+        index.add(caravel);
+        assertSame(caravel, index.shipAt(5, 4));
+
+        index.clear();
+        assertNull(index.shipAt(3, 3));
+        assertNull(index.shipAt(5, 4));
+        index.add(caravel);
+        assertSame(caravel, index.shipAt(5, 3));
+        assertNull(index.shipAt(3, 3));
+    }
+}
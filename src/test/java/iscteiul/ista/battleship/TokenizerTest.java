@@ -0,0 +1,101 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe Tokenizer")
+class TokenizerTest {
+
+    private static final String[] COMMANDS = {"nova", "desisto", "rajada"};
+
+    private static Tokenizer stream(String text, int bufferSize) {
+        return new Tokenizer(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)), bufferSize);
+    }
+
+    private static Tokenizer buffer(String text) {
+        return new Tokenizer(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    @DisplayName("Lê inteiros separados por qualquer espaço em branco")
+    void readsInts() {
+        Tokenizer in = stream("  12\t-3\n\n+7 0\r\n2147483647 -2147483648 ", 4);
+        assertEquals(12, in.nextInt());
+        assertEquals(-3, in.nextInt());
+        assertEquals(7, in.nextInt());
+        assertEquals(0, in.nextInt());
+        assertEquals(Integer.MAX_VALUE, in.nextInt());
+        assertEquals(Integer.MIN_VALUE, in.nextInt());
+        assertFalse(in.hasNext());
+        assertThrows(NoSuchElementException.class, in::nextInt);
+    }
+
+    @Test
+    @DisplayName("Rejeita tokens que não são inteiros")
+    void rejectsNonInts() {
+        assertThrows(InputMismatchException.class, () -> buffer("abc").nextInt());
+        assertThrows(InputMismatchException.class, () -> buffer("-").nextInt());
+        assertThrows(InputMismatchException.class, () -> buffer("12a").nextInt());
+        assertThrows(InputMismatchException.class, () -> buffer("2147483648").nextInt());
+        assertThrows(InputMismatchException.class, () -> buffer("-99999999999999999999").nextInt());
+    }
+
+    @Test
+    @DisplayName("Reconhece palavras-chave e devolve a própria constante")
+    void readsKeywords() {
+        Tokenizer in = buffer("rajada nova novas desisto Nova");
+        assertSame(COMMANDS[2], in.nextKeyword(COMMANDS));
+        assertSame(COMMANDS[0], in.nextKeyword(COMMANDS));
+        assertEquals("", in.nextKeyword(COMMANDS));
+        assertSame(COMMANDS[1], in.nextKeyword(COMMANDS));
+        assertEquals("", in.nextKeyword(COMMANDS));
+        assertThrows(NoSuchElementException.class, () -> in.nextKeyword(COMMANDS));
+    }
+
+    @Test
+    @DisplayName("nextChar devolve o primeiro carácter e salta o resto do token")
+    void readsChars() {
+        Tokenizer in = stream("norte s 5", 3);
+        assertEquals('n', in.nextChar());
+        assertEquals('s', in.nextChar());
+        assertEquals(5, in.nextInt());
+        assertFalse(in.hasNext());
+    }
+
+    @Test
+    @DisplayName("Tokens longos atravessam vários preenchimentos do buffer")
+    void longTokens() {
+        String word = "x".repeat(100);
+        Tokenizer in = stream(word + " " + word + "y 123456", 7);
+        assertSame(word, in.nextKeyword(new String[]{word}));
+        assertEquals("", in.nextKeyword(new String[]{word}));
+        assertEquals(123456, in.nextInt());
+        assertFalse(in.hasNext());
+    }
+
+    @Test
+    @DisplayName("Lê um navio e a frota como o Scanner lia")
+    void readsShipsAndFleets() {
+        Ship ship = Tasks.readShip(buffer("galeao 3 4 s"));
+        assertNotNull(ship);
+        assertEquals("Galeao", ship.getCategory());
+        assertEquals(Compass.SOUTH, ship.getBearing());
+        assertEquals(3, ship.getPosition().getRow());
+        assertEquals(4, ship.getPosition().getColumn());
+        assertNull(Tasks.readShip(buffer("submarino 0 0 n")));
+
+        StringBuilder script = new StringBuilder("barco 0 0 n\n");
+        for (int i = 0; i <= Fleet.FLEET_SIZE; i++)
+            script.append("barca ").append(i / 5 * 2).append(' ').append(i % 5 * 2).append(" n\n");
+        Fleet fleet = Tasks.buildFleet(stream(script.toString(), 16));
+        assertEquals(Fleet.FLEET_SIZE + 1, fleet.getShips().size());
+    }
+
+}
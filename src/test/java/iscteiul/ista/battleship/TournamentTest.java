@@ -0,0 +1,53 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe Tournament")
+class TournamentTest {
+
+    @Test
+    @DisplayName("A classificação ordena as estratégias pelo número médio de tiros")
+    void rankingOrdersStrategies() {
+        Tournament tournament = new Tournament();
+        tournament.addStrategy("aleatório", RandomShooter::new);
+        tournament.addStrategy("densidade", DensityShooter::new);
+
+        List<Tournament.Standing> ranking = tournament.run(600, 5);
+        assertEquals(2, ranking.size());
+        assertEquals("densidade", ranking.get(0).getName());
+        assertEquals("aleatório", ranking.get(1).getName());
+        for (Tournament.Standing standing : ranking) {
+            assertEquals(600, standing.getStats().getGames());
+            assertEquals(600, standing.getStats().getWins());
+            assertEquals(600L * 25, standing.getStats().getHits());
+            assertEquals(0, standing.getStats().getRepeatedShots());
+        }
+    }
+
+    @Test
+    @DisplayName("Os resultados não dependem do número de threads")
+    void resultsAreReproducible() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(4);
+        try {
+            String a = play(single).toString();
+            String b = play(many).toString();
+            assertEquals(a, b);
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+
+    private static List<Tournament.Standing> play(ForkJoinPool pool) {
+        Tournament tournament = new Tournament(BoardGeometry.STANDARD, FleetGenerator.STANDARD_FLEET, pool);
+        tournament.addStrategy("aleatório", RandomShooter::new);
+        tournament.addStrategy("densidade", DensityShooter::new);
+        return tournament.run(3 * Simulator.BATCH + 7, 9);
+    }
+}
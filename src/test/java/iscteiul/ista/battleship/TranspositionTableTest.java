@@ -0,0 +1,77 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes da classe TranspositionTable")
+class TranspositionTableTest {
+
+    private TranspositionTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = new TranspositionTable(1000);
+    }
+
+    @Test
+    @DisplayName("A capacidade é arredondada para uma potência de 2")
+    void capacityIsAPowerOfTwo() {
+        assertEquals(1024, table.capacity());
+        assertEquals(1, new TranspositionTable(1).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    @DisplayName("get devolve o valor guardado ou o valor por omissão")
+    void putAndGet() {
+        long hash = Zobrist.key(7, true);
+        assertEquals(-1, table.get(hash, -1));
+        table.put(hash, 42);
+        assertEquals(42, table.get(hash, -1));
+        assertEquals(-1, table.get(hash ^ 1, -1));
+        table.put(hash, 43);
+        assertEquals(43, table.get(hash, -1));
+
+        table.clear();
+        assertEquals(-1, table.get(hash, -1));
+    }
+
+    @Test
+    @DisplayName("Um estado que partilha a posição de outro substitui-o sem o confundir")
+    void collisionsReplaceEntries() {
+        TranspositionTable tiny = new TranspositionTable(1);
+        tiny.put(1, 10);
+        tiny.put(2, 20);
+        assertEquals(-1, tiny.get(1, -1));
+        assertEquals(20, tiny.get(2, -1));
+    }
+
+    @Test
+    @DisplayName("Leituras concorrentes nunca devolvem o valor de outro estado")
+    void concurrentAccessNeverMixesEntries() throws InterruptedException {
+        TranspositionTable small = new TranspositionTable(64);
+        AtomicInteger wrong = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    long hash = Zobrist.key(random.nextInt(4096), true);
+                    long value = small.get(hash, Long.MIN_VALUE);
+                    if (value != Long.MIN_VALUE && value != hash * 31)
+                        wrong.incrementAndGet();
+                    small.put(hash, hash * 31);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(0, wrong.get());
+    }
+}